@@ -0,0 +1,49 @@
+package id.val.learn01.benchmark;
+
+import id.val.learn01.Learn01Application;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+
+/**
+ * Boots the application against the H2 stand-in database.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Starts the real Spring context with the "h2" profile
+ *    - Shared by the JMH benchmarks that need wired beans
+ * 
+ * 2. Configuration:
+ *    - application-h2.properties replaces the MySQL datasource
+ *    - Extra properties are passed as command line arguments, so they
+ *      override application.properties
+ */
+public final class BenchmarkContext {
+    
+    private BenchmarkContext() {
+    }
+    
+    /**
+     * Starts a non-web application context
+     * @param properties additional "key=value" properties
+     * @return the running application context
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+    
+    /**
+     * Starts an application context of the given type
+     * @param type web application type
+     * @param properties additional "key=value" properties
+     * @return the running application context
+     */
+    public static ConfigurableApplicationContext start(WebApplicationType type, String... properties) {
+        return new SpringApplicationBuilder(Learn01Application.class)
+                .web(type)
+                .profiles("h2")
+                .run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+    }
+}
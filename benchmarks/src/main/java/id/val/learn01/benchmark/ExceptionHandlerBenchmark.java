@@ -0,0 +1,61 @@
+package id.val.learn01.benchmark;
+
+import id.val.learn01.exception.GlobalExceptionHandler;
+import id.val.learn01.exception.ResourceNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the cost of producing a 404 response.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Scenarios:
+ *    - createException: ResourceNotFoundException with message and stack trace
+ *    - handleNotFound: exception creation plus GlobalExceptionHandler response
+ * 
+ * 2. Notes:
+ *    - The request is built once, servlet dispatch is not measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+    
+    private GlobalExceptionHandler handler;
+    private WebRequest request;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        handler = new GlobalExceptionHandler();
+        request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/users/42"));
+    }
+    
+    @Benchmark
+    public ResourceNotFoundException createException() {
+        return new ResourceNotFoundException("User", "id", 42L);
+    }
+    
+    @Benchmark
+    public ResponseEntity<?> handleNotFound() {
+        return handler.handleResourceNotFoundException(
+                new ResourceNotFoundException("User", "id", 42L), request);
+    }
+}
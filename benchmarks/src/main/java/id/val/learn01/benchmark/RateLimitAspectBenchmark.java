@@ -0,0 +1,77 @@
+package id.val.learn01.benchmark;
+
+import id.val.learn01.annotation.RateLimit;
+import id.val.learn01.aspect.RateLimitAspect;
+import id.val.learn01.config.TracingProperties;
+import id.val.learn01.tracing.Tracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the per-call overhead of RateLimitAspect.rateLimit.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Scenarios:
+ *    - direct: plain call, the baseline
+ *    - rateLimited: same call through the AspectJ proxy and bucket check
+ * 
+ * 2. Setup:
+ *    - Bucket limit is large enough never to reject during a run
+ *    - No Spring context, only the aspect and a proxy
+ *    - No request trace is open, so the "ratelimit" span is Span.NOOP
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitAspectBenchmark {
+    
+    private Target direct;
+    private Target proxied;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        direct = new TargetImpl();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TargetImpl());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        factory.addAspect(new RateLimitAspect(meterRegistry, new Tracer(new TracingProperties(), meterRegistry)));
+        proxied = factory.getProxy();
+    }
+    
+    @Benchmark
+    public long direct() {
+        return direct.call(42L);
+    }
+    
+    @Benchmark
+    public long rateLimited() {
+        return proxied.call(42L);
+    }
+    
+    public interface Target {
+        long call(long value);
+    }
+    
+    public static class TargetImpl implements Target {
+        @Override
+        @RateLimit(limit = Integer.MAX_VALUE, duration = 3600)
+        public long call(long value) {
+            return value + 1;
+        }
+    }
+}
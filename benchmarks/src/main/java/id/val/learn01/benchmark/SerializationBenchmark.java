@@ -0,0 +1,77 @@
+package id.val.learn01.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.val.learn01.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for Jackson serialization of User responses.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Scenarios:
+ *    - user: single User, as returned by GET /api/users/{id}
+ *    - userList: list of {@code listSize} users, as returned by GET /api/users
+ * 
+ * 2. Setup:
+ *    - ObjectMapper built the same way Spring MVC builds it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    
+    @Param({"10", "1000"})
+    private int listSize;
+    
+    private ObjectMapper objectMapper;
+    private User user;
+    private List<User> users;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        user = newUser(1);
+        users = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            users.add(newUser(i));
+        }
+    }
+    
+    @Benchmark
+    public byte[] user() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+    
+    @Benchmark
+    public byte[] userList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+    
+    private static User newUser(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("Bench User " + id);
+        user.setEmail("bench" + id + "@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,98 @@
+package id.val.learn01.benchmark;
+
+import id.val.learn01.config.TracingProperties;
+import id.val.learn01.tracing.Span;
+import id.val.learn01.tracing.TailSampler;
+import id.val.learn01.tracing.Tracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the always-on cost of request tracing.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Scenarios:
+ *    - decideFast: tail sampling decision for a fast, successful trace,
+ *      the common case (random draw against the sample rate)
+ *    - decideSlow: decision for a trace above the slow threshold
+ *    - spanOutsideTrace: starting and closing a span on a thread without a
+ *      trace, as background threads do (Span.NOOP)
+ *    - tracedRequest: a whole request as recorded before the decision, a
+ *      root span with six nested spans (controller, cache, cache.load,
+ *      repository, shard.tx, sql), then the decision; almost every run is
+ *      dropped, like production traffic
+ * 
+ * 2. Setup:
+ *    - Default TracingProperties (200ms slow threshold, 1% sample rate)
+ *    - No Spring context
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TracingBenchmark {
+    
+    private static final long FAST_NANOS = Duration.ofMillis(5).toNanos();
+    private static final long SLOW_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final String[] CHILDREN = {"controller", "cache", "cache.load", "repository", "shard.tx", "sql"};
+    
+    private TailSampler sampler;
+    private Tracer tracer;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        TracingProperties properties = new TracingProperties();
+        sampler = new TailSampler(properties.getSlowThreshold(), properties.getSampleRate());
+        tracer = new Tracer(properties, new SimpleMeterRegistry());
+    }
+    
+    @Benchmark
+    public TailSampler.Decision decideFast() {
+        return sampler.decide(FAST_NANOS, false);
+    }
+    
+    @Benchmark
+    public TailSampler.Decision decideSlow() {
+        return sampler.decide(SLOW_NANOS, false);
+    }
+    
+    @Benchmark
+    public boolean spanOutsideTrace() {
+        try (Span span = tracer.startSpan("cache")) {
+            return span.isRecording();
+        }
+    }
+    
+    @Benchmark
+    public boolean tracedRequest() {
+        try (Span root = tracer.startTrace("GET /api/users/{id}", "/api/users/1")) {
+            nest(0);
+            root.status(200);
+            return root.isRecording();
+        }
+    }
+    
+    private void nest(int depth) {
+        if (depth == CHILDREN.length) {
+            return;
+        }
+        try (Span span = tracer.startSpan(CHILDREN[depth])) {
+            nest(depth + 1);
+        }
+    }
+}
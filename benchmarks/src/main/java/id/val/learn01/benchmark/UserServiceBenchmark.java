@@ -0,0 +1,85 @@
+package id.val.learn01.benchmark;
+
+import id.val.learn01.model.User;
+import id.val.learn01.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for UserService.getUserById.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Scenarios:
+ *    - cacheHit: id is served from the "userById" cache
+ *    - cacheMiss: key is evicted first, so the call goes to the database
+ * 
+ * 2. Setup:
+ *    - Real Spring context on the H2 stand-in
+ *    - Seeds {@code users} rows once per trial
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+    
+    @Param({"1000"})
+    private int users;
+    
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private Cache userByIdCache;
+    private long[] ids;
+    private int cursor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        userService = context.getBean(UserService.class);
+        userByIdCache = context.getBean(CacheManager.class).getCache("userById");
+        
+        ids = new long[users];
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setName("Bench User " + i);
+            user.setEmail("bench" + i + "@example.com");
+            ids[i] = userService.createUser(user).getId();
+        }
+        userService.getUserById(ids[0]);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public User cacheHit() {
+        return userService.getUserById(ids[0]);
+    }
+    
+    @Benchmark
+    public User cacheMiss() {
+        long id = ids[cursor++ % users];
+        userByIdCache.evict(id);
+        return userService.getUserById(id);
+    }
+}
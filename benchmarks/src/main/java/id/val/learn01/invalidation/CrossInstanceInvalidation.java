@@ -0,0 +1,152 @@
+package id.val.learn01.invalidation;
+
+import id.val.learn01.benchmark.BenchmarkContext;
+import id.val.learn01.exception.ResourceNotFoundException;
+import id.val.learn01.model.User;
+import id.val.learn01.service.UserService;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two application instances on one database: measures how long a write on one
+ * stays invisible in the other's cache.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Flow:
+ *    - Boots instance A and instance B in this JVM against the same H2
+ *      database (different node ids, B does not touch the schema)
+ *    - A creates --users users, B reads them all, so B's userById cache
+ *      holds every user
+ *    - --updates times: A renames a random user, then B reads it until
+ *      the new name is visible; the wait is B's staleness
+ *    - A deletes one user; B must answer 404 within --max-staleness
+ * 
+ * 2. Result:
+ *    - Staleness p50/p99/max; exit 1 if any read stayed stale longer
+ *      than --max-staleness (default 5000 ms)
+ * 
+ * 3. Options:
+ *    - --users=200 --updates=100 --max-staleness=5000
+ *    - Other key=value options are Spring properties for both instances,
+ *      e.g. --app.change-log.poll-interval=200ms
+ */
+public class CrossInstanceInvalidation {
+    
+    public static void main(String[] args) throws Exception {
+        int users = 200;
+        int updates = 100;
+        long maxStalenessMillis = 5000;
+        List<String> properties = new ArrayList<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            String value = option.substring(option.indexOf('=') + 1);
+            if (option.startsWith("users=")) {
+                users = Integer.parseInt(value);
+            } else if (option.startsWith("updates=")) {
+                updates = Integer.parseInt(value);
+            } else if (option.startsWith("max-staleness=")) {
+                maxStalenessMillis = Long.parseLong(value);
+            } else {
+                properties.add(option);
+            }
+        }
+        
+        ConfigurableApplicationContext instanceA = null;
+        ConfigurableApplicationContext instanceB = null;
+        int exitCode = 0;
+        try {
+            instanceA = BenchmarkContext.start(with(properties, "app.sharding.node-id=1"));
+            instanceB = BenchmarkContext.start(with(properties, "app.sharding.node-id=2", "spring.jpa.hibernate.ddl-auto=none"));
+            UserService serviceA = instanceA.getBean(UserService.class);
+            UserService serviceB = instanceB.getBean(UserService.class);
+            
+            List<Long> ids = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                User user = new User();
+                user.setName("User " + i);
+                user.setEmail("user" + i + "@invalidation.test");
+                ids.add(serviceA.createUser(user).getId());
+            }
+            ids.forEach(serviceB::getUserById);
+            System.out.printf("%d users created on A and cached on B%n", users);
+            
+            Histogram staleness = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+            int staleReads = 0;
+            for (int i = 0; i < updates; i++) {
+                long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                User current = serviceA.getUserById(id);
+                User update = new User();
+                update.setName("Renamed " + i);
+                update.setEmail(current.getEmail());
+                serviceA.updateUser(id, update);
+                
+                long start = System.nanoTime();
+                long waited = waitUntil(() -> update.getName().equals(serviceB.getUserById(id).getName()), maxStalenessMillis);
+                staleness.recordValue(Math.min(waited, staleness.getHighestTrackableValue()));
+                if (waited < 0 || System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis)) {
+                    staleReads++;
+                }
+            }
+            
+            long deleted = ids.get(0);
+            serviceA.deleteUser(deleted);
+            long deleteWait = waitUntil(() -> {
+                try {
+                    serviceB.getUserById(deleted);
+                    return false;
+                } catch (ResourceNotFoundException ex) {
+                    return true;
+                }
+            }, maxStalenessMillis);
+            
+            System.out.printf("Update staleness on B: p50 %.1f ms, p99 %.1f ms, max %.1f ms over %d updates%n",
+                    staleness.getValueAtPercentile(50) / 1000.0, staleness.getValueAtPercentile(99) / 1000.0,
+                    staleness.getMaxValue() / 1000.0, updates);
+            System.out.printf("Delete visible on B after %s%n", deleteWait < 0 ? "timeout" : String.format("%.1f ms", deleteWait / 1000.0));
+            if (staleReads > 0 || deleteWait < 0) {
+                System.out.printf("FAILED: %d updates stale longer than %d ms%n", staleReads, maxStalenessMillis);
+                exitCode = 1;
+            }
+        } finally {
+            if (instanceB != null) {
+                instanceB.close();
+            }
+            if (instanceA != null) {
+                instanceA.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+    
+    /**
+     * Polls a condition every millisecond
+     * @return microseconds until the condition held, or -1 on timeout
+     */
+    private static long waitUntil(Condition condition, long timeoutMillis) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!condition.holds()) {
+            if (System.nanoTime() > deadline) {
+                return -1;
+            }
+            Thread.sleep(1);
+        }
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+    }
+    
+    private static String[] with(List<String> properties, String... extra) {
+        List<String> all = new ArrayList<>(List.of(extra));
+        all.addAll(properties);
+        return all.toArray(new String[0]);
+    }
+    
+    @FunctionalInterface
+    private interface Condition {
+        boolean holds();
+    }
+}
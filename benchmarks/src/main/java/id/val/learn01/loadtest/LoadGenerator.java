@@ -0,0 +1,182 @@
+package id.val.learn01.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load generator.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Issues requests on a fixed schedule of {@code rate} per second
+ *    - Sends asynchronously, so slow responses never delay the schedule
+ *    - Records latency per operation in HdrHistograms and counts every
+ *      scheduled request as answered, error, dropped or undrained
+ * 
+ * 2. Coordinated Omission:
+ *    - Latency is measured from the intended start time of each request,
+ *      not from the moment it was actually sent
+ *    - A stalled server therefore shows up in the percentiles instead of
+ *      silently lowering the request rate
+ *    - A request without a response is recorded at the highest trackable
+ *      value, so it can only raise the percentiles: dropped requests, ones
+ *      still in flight after the drain and ones failed without a response
+ * 
+ * 3. Errors:
+ *    - Error responses (status 400 and above) are counted but neither
+ *      recorded as latency nor counted as throughput, so a fast failing
+ *      server does not look faster
+ * 
+ * 4. Safety:
+ *    - Requests beyond max-in-flight are not sent but counted as dropped
+ *    - Requests still in flight 30 s after the schedule ends are counted
+ *      as undrained; their late responses are ignored
+ */
+public class LoadGenerator {
+    
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    
+    private final HttpClient client;
+    private final URI baseUri;
+    private final LoadTestOptions options;
+    private final long[] ids;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final AtomicLong createSequence = new AtomicLong();
+    private final long runId = System.currentTimeMillis();
+    
+    public LoadGenerator(HttpClient client, URI baseUri, LoadTestOptions options, long[] ids) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.options = options;
+        this.ids = ids;
+        this.operations = options.getMix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.getMix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+    
+    /**
+     * Runs the schedule for the given duration
+     * @param duration how long to generate load
+     * @return report with one histogram per operation
+     * @throws InterruptedException if interrupted while draining requests
+     */
+    public LoadTestReport run(Duration duration) throws InterruptedException {
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, LoadTestReport.Outcomes> outcomes = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            outcomes.put(operation, new LoadTestReport.Outcomes());
+        }
+        // Flag per request: whichever of the response and the drain deadline comes first records it
+        Map<AtomicBoolean, Operation> inFlight = new ConcurrentHashMap<>();
+        
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick();
+            Histogram histogram = histograms.get(operation);
+            LoadTestReport.Outcomes outcome = outcomes.get(operation);
+            outcome.requests.increment();
+            if (inFlight.size() >= options.getMaxInFlight()) {
+                histogram.recordValue(HIGHEST_TRACKABLE_MICROS);
+                outcome.dropped.increment();
+                continue;
+            }
+            
+            AtomicBoolean pending = new AtomicBoolean(true);
+            inFlight.put(pending, operation);
+            client.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        if (!pending.compareAndSet(true, false)) {
+                            return;
+                        }
+                        inFlight.remove(pending);
+                        if (failure != null) {
+                            histogram.recordValue(HIGHEST_TRACKABLE_MICROS);
+                            outcome.errors.increment();
+                        } else if (response.statusCode() >= 400) {
+                            outcome.errors.increment();
+                        } else {
+                            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+                            histogram.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                            outcome.answered.increment();
+                        }
+                    });
+        }
+        
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!inFlight.isEmpty() && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        inFlight.forEach((pending, operation) -> {
+            if (pending.compareAndSet(true, false)) {
+                histograms.get(operation).recordValue(HIGHEST_TRACKABLE_MICROS);
+                outcomes.get(operation).undrained.increment();
+            }
+        });
+        return new LoadTestReport(histograms, outcomes, duration);
+    }
+    
+    private Operation pick() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+    
+    private HttpRequest request(Operation operation) {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30));
+        return switch (operation) {
+            case GET -> builder.uri(baseUri.resolve("/api/users/" + id)).GET().build();
+            case LIST -> builder.uri(baseUri.resolve("/api/users")).GET().build();
+            case CREATE -> {
+                long sequence = createSequence.incrementAndGet();
+                yield builder.uri(baseUri.resolve("/api/users"))
+                        .header("Content-Type", "application/json")
+                        .POST(json("Load User " + sequence, "load-" + runId + "-" + sequence + "@example.com"))
+                        .build();
+            }
+            case UPDATE -> builder.uri(baseUri.resolve("/api/users/" + id))
+                    .header("Content-Type", "application/json")
+                    .PUT(json("Updated User " + id, "user" + id + "-" + runId + "@example.com"))
+                    .build();
+        };
+    }
+    
+    private static HttpRequest.BodyPublisher json(String name, String email) {
+        return HttpRequest.BodyPublishers.ofString(
+                "{\"name\":\"" + name + "\",\"email\":\"" + email + "\"}");
+    }
+}
@@ -0,0 +1,185 @@
+package id.val.learn01.loadtest;
+
+import id.val.learn01.benchmark.BenchmarkContext;
+import id.val.learn01.sharding.ShardRouter;
+import id.val.learn01.sharding.ShardTemplate;
+import id.val.learn01.sharding.ShardedIdGenerator;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Entry point of the end-to-end load test for UserController.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Flow:
+ *    - Boots the application on a random port (H2 in MySQL mode by default,
+ *      a local MySQL when --spring.datasource.* options are given)
+ *    - Seeds the users table up to --users rows, placing each row on
+ *      its shard with the application's id generator
+ *    - Runs a warmup, then the recorded open-loop run
+ *    - Prints and writes the report, then applies the baseline gate
+ * 
+ * 2. Exit Codes:
+ *    - 0: passed, or no baseline to compare against
+ *    - 1: p99, throughput or error rate regressed past the tolerance, or
+ *      more requests were dropped or left without a response
+ * 
+ * 3. External Target:
+ *    - --target=http://host:port skips boot and seeding; ids are then
+ *      read from the first --users rows of GET /api/users/export
+ */
+public class LoadTest {
+    
+    private static final int SEED_BATCH_SIZE = 10_000;
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = null;
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        int exitCode = 0;
+        try {
+            URI baseUri;
+            long[] ids;
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(executor)
+                    .build();
+            if (options.getTarget() != null) {
+                baseUri = URI.create(options.getTarget());
+                ids = exportedIds(client, baseUri, options.getUsers());
+            } else {
+                List<String> properties = new ArrayList<>(options.getSpringProperties());
+                properties.add("server.port=0");
+                context = BenchmarkContext.start(WebApplicationType.SERVLET, properties.toArray(new String[0]));
+                seed(context, options.getUsers());
+                JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                ids = context.getBean(ShardTemplate.class)
+                        .scatter(true, shard -> jdbcTemplate.queryForList("SELECT id FROM users", Long.class))
+                        .stream().flatMap(List::stream).mapToLong(Long::longValue).toArray();
+                baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            }
+            if (ids.length == 0) {
+                throw new IllegalStateException("No users to target");
+            }
+            
+            LoadGenerator generator = new LoadGenerator(client, baseUri, options, ids);
+            
+            if (options.getWarmup() > 0) {
+                System.out.printf("Warming up for %d s at %d req/s%n", options.getWarmup(), options.getRate());
+                generator.run(Duration.ofSeconds(options.getWarmup()));
+            }
+            System.out.printf("Running for %d s at %d req/s against %s%n", options.getDuration(), options.getRate(), baseUri);
+            LoadTestReport report = generator.run(Duration.ofSeconds(options.getDuration()));
+            report.print(System.out);
+            report.writeJson(options.getOutput());
+            
+            if (options.getBaseline() != null) {
+                if (options.isWriteBaseline()) {
+                    report.writeBaseline(options.getBaseline());
+                    System.out.println("Baseline written to " + options.getBaseline());
+                } else if (Files.exists(options.getBaseline())) {
+                    List<String> regressions = report.compare(options.getBaseline(),
+                            options.getP99Tolerance(), options.getThroughputTolerance(), options.getErrorRateTolerance());
+                    regressions.forEach(regression -> System.out.println("REGRESSION: " + regression));
+                    exitCode = regressions.isEmpty() ? 0 : 1;
+                } else {
+                    System.out.println("No baseline at " + options.getBaseline() + ", skipping regression gate");
+                }
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            executor.shutdownNow();
+        }
+        System.exit(exitCode);
+    }
+    
+    /**
+     * Inserts users and their email lookup rows until all shards together hold the requested number of rows
+     * @param context running application context
+     * @param users target row count
+     */
+    private static void seed(ConfigurableApplicationContext context, long users) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        ShardTemplate shardTemplate = context.getBean(ShardTemplate.class);
+        ShardRouter shardRouter = context.getBean(ShardRouter.class);
+        ShardedIdGenerator idGenerator = context.getBean(ShardedIdGenerator.class);
+        
+        long existing = shardTemplate.scatter(true, shard -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class))
+                .stream().mapToLong(Long::longValue).sum();
+        long missing = users - existing;
+        if (missing <= 0) {
+            return;
+        }
+        System.out.printf("Seeding %d users%n", missing);
+        long seedId = System.currentTimeMillis();
+        for (long offset = 0; offset < missing; offset += SEED_BATCH_SIZE) {
+            int size = (int) Math.min(SEED_BATCH_SIZE, missing - offset);
+            List<List<Object[]>> userRows = new ArrayList<>();
+            List<List<Object[]>> emailRows = new ArrayList<>();
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                userRows.add(new ArrayList<>());
+                emailRows.add(new ArrayList<>());
+            }
+            for (int i = 0; i < size; i++) {
+                long n = offset + i;
+                String email = "seed-" + seedId + "-" + n + "@example.com";
+                long id = idGenerator.nextId(shardRouter.bucketOfEmail(email));
+                int shard = shardRouter.shardOf(id);
+                userRows.get(shard).add(new Object[]{id, "Seed User " + n, email});
+                emailRows.get(shard).add(new Object[]{ShardRouter.emailKey(email), id});
+            }
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                List<Object[]> shardUsers = userRows.get(shard);
+                List<Object[]> shardEmails = emailRows.get(shard);
+                shardTemplate.inShard(shard, false, () -> {
+                    jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", shardUsers);
+                    return jdbcTemplate.batchUpdate("INSERT INTO user_emails (email, user_id) VALUES (?, ?)", shardEmails);
+                });
+            }
+        }
+    }
+    
+    /**
+     * Reads user ids from the export endpoint of an external target
+     * @param client HTTP client
+     * @param baseUri target base URI
+     * @param users maximum number of ids to read
+     * @return ids in export order
+     * @throws Exception if the export cannot be read
+     */
+    private static long[] exportedIds(HttpClient client, URI baseUri, long users) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/users/export")).GET().build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        List<Long> ids = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while (ids.size() < users && (line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma > 0) {
+                    ids.add(Long.parseLong(line.substring(0, comma)));
+                }
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,107 @@
+package id.val.learn01.loadtest;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options for the load test.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Options (all in --key=value form):
+ *    - users: dataset size to seed (default 1000000)
+ *    - rate: target requests per second, open loop (default 1000)
+ *    - duration / warmup: seconds of recorded / discarded load
+ *    - mix: operation weights, e.g. get=90,list=0,create=5,update=5
+ *    - target: base URL of an already running instance (skips boot and seed)
+ *    - baseline: properties file used as the regression gate
+ *    - write-baseline: store this run as the new baseline instead of comparing
+ *    - p99-tolerance / throughput-tolerance: allowed regression ratios
+ *    - error-rate-tolerance: allowed error rate increase, absolute
+ *    - max-in-flight: safety cap on outstanding requests
+ *    - output: JSON report path
+ * 
+ * 2. Spring Properties:
+ *    - Any other option with a dot in its key (e.g. --spring.datasource.url=...)
+ *      is passed to the booted application, which allows a local MySQL
+ */
+@Getter
+public class LoadTestOptions {
+    
+    private long users = 1_000_000;
+    private int rate = 1_000;
+    private int duration = 60;
+    private int warmup = 10;
+    private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    private String target;
+    private Path baseline;
+    private boolean writeBaseline;
+    private double p99Tolerance = 0.10;
+    private double throughputTolerance = 0.05;
+    private double errorRateTolerance = 0.001;
+    private int maxInFlight = 10_000;
+    private Path output = Path.of("target", "loadtest-result.json");
+    private final List<String> springProperties = new ArrayList<>();
+    
+    /**
+     * Parses command line arguments
+     * @param args arguments in --key=value form
+     * @return parsed options
+     * @throws IllegalArgumentException if an option is unknown or malformed
+     */
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        options.parseMix("get=90,list=0,create=5,update=5");
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String key = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+            String value = separator < 0 ? "true" : arg.substring(separator + 1);
+            switch (key) {
+                case "users" -> options.users = Long.parseLong(value);
+                case "rate" -> options.rate = Integer.parseInt(value);
+                case "duration" -> options.duration = Integer.parseInt(value);
+                case "warmup" -> options.warmup = Integer.parseInt(value);
+                case "mix" -> options.parseMix(value);
+                case "target" -> options.target = value;
+                case "baseline" -> options.baseline = Path.of(value);
+                case "write-baseline" -> options.writeBaseline = Boolean.parseBoolean(value);
+                case "p99-tolerance" -> options.p99Tolerance = Double.parseDouble(value);
+                case "throughput-tolerance" -> options.throughputTolerance = Double.parseDouble(value);
+                case "error-rate-tolerance" -> options.errorRateTolerance = Double.parseDouble(value);
+                case "max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                case "output" -> options.output = Path.of(value);
+                default -> {
+                    if (!key.contains(".")) {
+                        throw new IllegalArgumentException("Unknown option: --" + key);
+                    }
+                    options.springProperties.add(key + "=" + value);
+                }
+            }
+        }
+        if (options.rate <= 0 || options.duration <= 0) {
+            throw new IllegalArgumentException("rate and duration must be positive");
+        }
+        return options;
+    }
+    
+    private void parseMix(String value) {
+        mix.clear();
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            mix.put(Operation.fromKey(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Mix weights must add up to more than zero");
+        }
+    }
+}
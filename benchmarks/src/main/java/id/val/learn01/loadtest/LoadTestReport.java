@@ -0,0 +1,206 @@
+package id.val.learn01.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Result of one load test run.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Summarizes per-operation latency percentiles, throughput, error
+ *      rate and requests left without a response
+ *    - Writes a machine-readable JSON report
+ *    - Reads and writes the baseline used as the regression gate
+ * 
+ * 2. Counts:
+ *    - requests: every request the schedule asked for
+ *    - throughput: successful responses per second only
+ *    - errorRate: error responses and failures per scheduled request
+ *    - dropped / undrained: not sent at max-in-flight / no response by
+ *      the end of the drain; both are recorded as the highest latency
+ * 
+ * 3. Baseline Format:
+ *    - Java properties, four keys per operation: <operation>.p99Ms,
+ *      <operation>.throughput, <operation>.errorRate and <operation>.dropped
+ *    - A baseline without errorRate or dropped counts as zero for them
+ * 
+ * 4. Regression Rules:
+ *    - p99 above baseline * (1 + p99Tolerance)
+ *    - throughput below baseline * (1 - throughputTolerance)
+ *    - error rate above baseline + errorRateTolerance
+ *    - more dropped plus undrained requests than the baseline
+ */
+public class LoadTestReport {
+    
+    private final Map<Operation, Histogram> histograms;
+    private final Map<Operation, Outcomes> outcomes;
+    private final Duration duration;
+    
+    public LoadTestReport(Map<Operation, Histogram> histograms, Map<Operation, Outcomes> outcomes, Duration duration) {
+        this.histograms = histograms;
+        this.outcomes = outcomes;
+        this.duration = duration;
+    }
+    
+    /**
+     * Prints a human readable table
+     * @param out target stream
+     */
+    public void print(PrintStream out) {
+        out.printf("%-22s %10s %8s %8s %10s %12s %10s %10s %10s %10s%n", "endpoint", "requests", "errors",
+                "dropped", "undrained", "throughput", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        summary().forEach((operation, stats) -> out.printf(
+                "%-22s %10d %8d %8d %10d %12.1f %10.2f %10.2f %10.2f %10.2f%n", operation.endpoint(),
+                stats.get("requests"), stats.get("errors"), stats.get("dropped"), stats.get("undrained"),
+                stats.get("throughput"), stats.get("p50Ms"), stats.get("p99Ms"), stats.get("p999Ms"), stats.get("maxMs")));
+        long dropped = total(outcome -> outcome.dropped);
+        if (dropped > 0) {
+            out.printf("dropped (max-in-flight reached): %d%n", dropped);
+        }
+        long undrained = total(outcome -> outcome.undrained);
+        if (undrained > 0) {
+            out.printf("undrained (no response 30 s after the run): %d%n", undrained);
+        }
+    }
+    
+    /**
+     * Writes the report as JSON
+     * @param path output file
+     * @throws IOException if the file cannot be written
+     */
+    public void writeJson(Path path) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("dropped", total(outcome -> outcome.dropped));
+        report.put("undrained", total(outcome -> outcome.undrained));
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        summary().forEach((operation, stats) -> endpoints.put(operation.key(), stats));
+        report.put("endpoints", endpoints);
+        
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+    }
+    
+    /**
+     * Stores this run as the baseline
+     * @param path baseline properties file
+     * @throws IOException if the file cannot be written
+     */
+    public void writeBaseline(Path path) throws IOException {
+        Properties properties = new Properties();
+        summary().forEach((operation, stats) -> {
+            properties.setProperty(operation.key() + ".p99Ms", String.valueOf(stats.get("p99Ms")));
+            properties.setProperty(operation.key() + ".throughput", String.valueOf(stats.get("throughput")));
+            properties.setProperty(operation.key() + ".errorRate", String.valueOf(stats.get("errorRate")));
+            properties.setProperty(operation.key() + ".dropped",
+                    String.valueOf((long) stats.get("dropped") + (long) stats.get("undrained")));
+        });
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            properties.store(writer, "learn01 load test baseline");
+        }
+    }
+    
+    /**
+     * Compares this run against a baseline
+     * @param path baseline properties file
+     * @param p99Tolerance allowed relative p99 increase
+     * @param throughputTolerance allowed relative throughput decrease
+     * @param errorRateTolerance allowed absolute error rate increase
+     * @return human readable regressions, empty if the run passes
+     * @throws IOException if the baseline cannot be read
+     */
+    public List<String> compare(Path path, double p99Tolerance, double throughputTolerance,
+                                double errorRateTolerance) throws IOException {
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            baseline.load(reader);
+        }
+        
+        List<String> regressions = new ArrayList<>();
+        summary().forEach((operation, stats) -> {
+            String p99 = baseline.getProperty(operation.key() + ".p99Ms");
+            if (p99 != null && (double) stats.get("p99Ms") > Double.parseDouble(p99) * (1 + p99Tolerance)) {
+                regressions.add(String.format("%s p99 %.2f ms exceeds baseline %s ms",
+                        operation.endpoint(), stats.get("p99Ms"), p99));
+            }
+            String throughput = baseline.getProperty(operation.key() + ".throughput");
+            if (throughput != null
+                    && (double) stats.get("throughput") < Double.parseDouble(throughput) * (1 - throughputTolerance)) {
+                regressions.add(String.format("%s throughput %.1f/s below baseline %s/s",
+                        operation.endpoint(), stats.get("throughput"), throughput));
+            }
+            String errorRate = baseline.getProperty(operation.key() + ".errorRate", "0");
+            if ((double) stats.get("errorRate") > Double.parseDouble(errorRate) + errorRateTolerance) {
+                regressions.add(String.format("%s error rate %.4f exceeds baseline %s",
+                        operation.endpoint(), stats.get("errorRate"), errorRate));
+            }
+            String dropped = baseline.getProperty(operation.key() + ".dropped", "0");
+            long unanswered = (long) stats.get("dropped") + (long) stats.get("undrained");
+            if (unanswered > Long.parseLong(dropped)) {
+                regressions.add(String.format("%s dropped or undrained %d requests, baseline %s",
+                        operation.endpoint(), unanswered, dropped));
+            }
+        });
+        return regressions;
+    }
+    
+    private Map<Operation, Map<String, Object>> summary() {
+        Map<Operation, Map<String, Object>> summary = new LinkedHashMap<>();
+        double seconds = duration.toNanos() / 1e9;
+        histograms.forEach((operation, histogram) -> {
+            Outcomes outcome = outcomes.get(operation);
+            long requests = outcome.requests.sum();
+            if (requests == 0) {
+                return;
+            }
+            long errors = outcome.errors.sum();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", requests);
+            stats.put("errors", errors);
+            stats.put("dropped", outcome.dropped.sum());
+            stats.put("undrained", outcome.undrained.sum());
+            stats.put("errorRate", (double) errors / requests);
+            stats.put("throughput", outcome.answered.sum() / seconds);
+            stats.put("p50Ms", histogram.getValueAtPercentile(50.0) / 1000.0);
+            stats.put("p99Ms", histogram.getValueAtPercentile(99.0) / 1000.0);
+            stats.put("p999Ms", histogram.getValueAtPercentile(99.9) / 1000.0);
+            stats.put("maxMs", histogram.getMaxValue() / 1000.0);
+            summary.put(operation, stats);
+        });
+        return summary;
+    }
+    
+    private long total(Function<Outcomes, LongAdder> counter) {
+        return outcomes.values().stream().mapToLong(outcome -> counter.apply(outcome).sum()).sum();
+    }
+    
+    /**
+     * Outcome counters of one operation, filled in by LoadGenerator
+     */
+    static final class Outcomes {
+        final LongAdder requests = new LongAdder();
+        final LongAdder answered = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final LongAdder undrained = new LongAdder();
+    }
+}
@@ -0,0 +1,52 @@
+package id.val.learn01.loadtest;
+
+/**
+ * REST operations replayed by the load test.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Values:
+ *    - GET: GET /api/users/{id}
+ *    - LIST: GET /api/users
+ *    - CREATE: POST /api/users
+ *    - UPDATE: PUT /api/users/{id}
+ * 
+ * 2. Usage:
+ *    - key() is used in --mix, the JSON report and the baseline file
+ */
+public enum Operation {
+    GET("get", "GET /api/users/{id}"),
+    LIST("list", "GET /api/users"),
+    CREATE("create", "POST /api/users"),
+    UPDATE("update", "PUT /api/users/{id}");
+    
+    private final String key;
+    private final String endpoint;
+    
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+    
+    public String key() {
+        return key;
+    }
+    
+    public String endpoint() {
+        return endpoint;
+    }
+    
+    /**
+     * Resolves an operation from its key
+     * @param key operation key, e.g. "get"
+     * @return matching operation
+     * @throws IllegalArgumentException if the key is unknown
+     */
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key);
+    }
+}
@@ -0,0 +1,90 @@
+package id.val.learn01.simulation;
+
+import id.val.learn01.config.PoolSizingProperties;
+import id.val.learn01.datasource.PoolDecision;
+import id.val.learn01.datasource.PoolSample;
+import id.val.learn01.datasource.PoolSizeController;
+
+/**
+ * Drives PoolSizeController with a synthetic load shift.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Scenario:
+ *    - Service time W = 20 ms per connection use
+ *    - Arrival rate 100/s, then a burst of 800/s, then back to 100/s
+ * 
+ * 2. Pool Model:
+ *    - Capacity = size / W; arrivals above capacity queue up, so the
+ *      observed acquisition rate is capped and callers wait
+ *    - Demand below capacity is served with no wait
+ * 
+ * 3. Result:
+ *    - Prints one line per sampling interval
+ *    - Exits with 1 if a phase ends outside [lambda * W, lambda * W * headroom + maxStep]
+ *      or the size is still changing in the last samples of a phase
+ */
+public class PoolSizingSimulation {
+    
+    private static final double SERVICE_MILLIS = 20;
+    private static final double INTERVAL_SECONDS = 10;
+    private static final int STABLE_SAMPLES = 5;
+    
+    public static void main(String[] args) {
+        PoolSizingProperties properties = new PoolSizingProperties();
+        PoolSizeController controller = new PoolSizeController(properties);
+        double[][] phases = {{100, 20}, {800, 30}, {100, 40}};
+        
+        int size = 10;
+        boolean converged = true;
+        System.out.printf("%5s %8s %6s %8s %8s  %s%n", "tick", "lambda", "size", "target", "action", "reason");
+        int tick = 0;
+        for (double[] phase : phases) {
+            double lambda = phase[0];
+            int samples = (int) phase[1];
+            int lastChange = 0;
+            for (int i = 0; i < samples; i++, tick++) {
+                PoolDecision decision = controller.decide(size, sample(lambda, size));
+                System.out.printf("%5d %8.0f %6d %8.1f %8s  %s%n",
+                        tick, lambda, decision.newSize(), decision.target(), decision.direction(), decision.reason());
+                if (decision.changed()) {
+                    lastChange = i;
+                }
+                size = decision.newSize();
+            }
+            
+            double demand = lambda * SERVICE_MILLIS / 1000.0;
+            int lower = Math.max(properties.getMinSize(), (int) Math.ceil(demand));
+            int upper = Math.max(properties.getMinSize(),
+                    (int) Math.ceil(demand * properties.getHeadroom()) + properties.getMaxStep());
+            boolean stable = samples - 1 - lastChange >= STABLE_SAMPLES;
+            boolean inRange = size >= lower && size <= upper;
+            System.out.printf("phase lambda=%.0f: size %d, expected [%d, %d], %s%n",
+                    lambda, size, lower, upper, inRange && stable ? "converged" : "NOT converged");
+            converged &= inRange && stable;
+        }
+        System.exit(converged ? 0 : 1);
+    }
+    
+    /**
+     * Builds the sample a pool of the given size would report
+     * @param lambda offered arrival rate per second
+     * @param size current maximum pool size
+     * @return synthetic pool sample
+     */
+    private static PoolSample sample(double lambda, int size) {
+        double capacity = size / (SERVICE_MILLIS / 1000.0);
+        double served = Math.min(lambda, capacity);
+        double busy = served * SERVICE_MILLIS / 1000.0;
+        boolean saturated = lambda > capacity;
+        int waiting = saturated ? (int) Math.ceil((lambda - capacity) * SERVICE_MILLIS / 1000.0) : 0;
+        double meanWait = saturated ? SERVICE_MILLIS * (lambda / capacity) : 0;
+        return new PoolSample(
+                Math.round(served * INTERVAL_SECONDS),
+                INTERVAL_SECONDS,
+                meanWait,
+                SERVICE_MILLIS,
+                (int) Math.ceil(busy),
+                size - (int) Math.ceil(busy),
+                waiting);
+    }
+}
@@ -0,0 +1,214 @@
+package id.val.learn01.startup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Measures startup time and time to first request of the packaged application.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Flow:
+ *    - Launches the -Pfast-startup jar as a separate JVM per iteration, in
+ *      each requested mode, with the prod profile and an H2 database
+ *    - Startup: the JVM-reported "process running for" time at the
+ *      "Started Learn01Application" log line
+ *    - Time to first request (TTFR): from process launch until
+ *      GET /api/users/search?size=1 first answers 200
+ *    - Prints and writes medians, then applies the baseline gate
+ * 
+ * 2. Exit Codes:
+ *    - 0: passed, or no baseline to compare against
+ *    - 1: a median regressed past the tolerance
+ * 
+ * 3. Prerequisite:
+ *    - mvn -Pfast-startup install -DskipTests in the project root
+ */
+public class StartupBenchmark {
+    
+    private static final String MAIN_CLASS = "id.val.learn01.Learn01Application";
+    private static final Pattern STARTED = Pattern.compile(
+            "Started Learn01Application in [\\d.]+ seconds \\(process running for ([\\d.]+)\\)");
+    
+    public static void main(String[] args) throws Exception {
+        StartupOptions options = StartupOptions.parse(args);
+        Path jar = findApplicationJar(options.getAppDir());
+        Path archive = jar.resolveSibling(jar.getFileName().toString().replace(".jar", ".jsa"));
+        String classPath = jar + File.pathSeparator + findOnClassPath("h2-");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        
+        Map<StartupMode, List<StartupReport.Sample>> samples = new EnumMap<>(StartupMode.class);
+        for (StartupMode mode : options.getModes()) {
+            if (mode == StartupMode.FAST && !Files.exists(archive)) {
+                System.out.println("No CDS archive at " + archive + ", skipping mode " + mode.key());
+                continue;
+            }
+            List<StartupReport.Sample> modeSamples = new ArrayList<>();
+            for (int i = 1; i <= options.getIterations(); i++) {
+                StartupReport.Sample sample = launch(mode, classPath, archive, options, client);
+                System.out.printf("%-5s run %d: startup %.0f ms, first request %.0f ms%n",
+                        mode.key(), i, sample.startupMs(), sample.ttfrMs());
+                modeSamples.add(sample);
+            }
+            samples.put(mode, modeSamples);
+        }
+        
+        StartupReport report = new StartupReport(samples);
+        report.print(System.out);
+        report.writeJson(options.getOutput());
+        
+        int exitCode = 0;
+        if (options.getBaseline() != null) {
+            if (options.isWriteBaseline()) {
+                report.writeBaseline(options.getBaseline());
+                System.out.println("Baseline written to " + options.getBaseline());
+            } else if (Files.exists(options.getBaseline())) {
+                List<String> regressions = report.compare(options.getBaseline(), options.getTolerance());
+                regressions.forEach(regression -> System.out.println("REGRESSION: " + regression));
+                exitCode = regressions.isEmpty() ? 0 : 1;
+            } else {
+                System.out.println("No baseline at " + options.getBaseline() + ", skipping regression gate");
+            }
+        }
+        System.exit(exitCode);
+    }
+    
+    /**
+     * Launches the application once and waits for its first successful request
+     * @return measured startup and time to first request
+     */
+    private static StartupReport.Sample launch(StartupMode mode, String classPath, Path archive,
+                                               StartupOptions options, HttpClient client) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(mode.jvmOptions(archive));
+        command.add("-cp");
+        command.add(classPath);
+        command.add(MAIN_CLASS);
+        applicationProperties(port, options).forEach((key, value) -> command.add("--" + key + "=" + value));
+        
+        long launchNanos = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        AtomicReference<Double> processRunningSeconds = new AtomicReference<>();
+        Thread reader = new Thread(() -> readLog(process, processRunningSeconds), "startup-log-reader");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/search?size=1"))
+                    .timeout(Duration.ofSeconds(10))
+                    .GET()
+                    .build();
+            long deadline = launchNanos + TimeUnit.SECONDS.toNanos(options.getTimeout());
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with code " + process.exitValue());
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("No successful request within " + options.getTimeout() + " s");
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (IOException ex) {
+                    // Not listening yet
+                }
+                Thread.sleep(5);
+            }
+            double ttfrMs = (System.nanoTime() - launchNanos) / 1e6;
+            reader.join(TimeUnit.SECONDS.toMillis(5));
+            Double started = processRunningSeconds.get();
+            return new StartupReport.Sample(started == null ? Double.NaN : started * 1000, ttfrMs);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+    
+    private static Map<String, String> applicationProperties(int port, StartupOptions options) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.profiles.active", "prod");
+        properties.put("server.port", String.valueOf(port));
+        properties.put("management.server.port", "0");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:startup;MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        // The in-memory database starts empty, so the schema must be created
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        for (String property : options.getSpringProperties()) {
+            int separator = property.indexOf('=');
+            properties.put(property.substring(0, separator), property.substring(separator + 1));
+        }
+        return properties;
+    }
+    
+    /**
+     * Drains the application log and captures the JVM-reported startup time
+     */
+    private static void readLog(Process process, AtomicReference<Double> processRunningSeconds) {
+        try (BufferedReader log = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = log.readLine()) != null) {
+                Matcher matcher = STARTED.matcher(line);
+                if (matcher.find()) {
+                    processRunningSeconds.set(Double.parseDouble(matcher.group(1)));
+                    return;
+                }
+            }
+        } catch (IOException ex) {
+            // Process ended
+        }
+    }
+    
+    private static Path findApplicationJar(Path appDir) throws IOException {
+        try (Stream<Path> files = Files.list(appDir)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith("learn01-") && name.endsWith(".jar") && !name.endsWith("-exec.jar");
+                    })
+                    .findFirst()
+                    .filter(jar -> Files.isDirectory(appDir.resolve("lib")))
+                    .orElseThrow(() -> new IllegalStateException("No fast-startup build in " + appDir
+                            + ", run: mvn -Pfast-startup install -DskipTests"));
+        }
+    }
+    
+    private static String findOnClassPath(String prefix) {
+        return Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entry -> Path.of(entry).getFileName().toString().startsWith(prefix))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(prefix + "*.jar not on the class path"));
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
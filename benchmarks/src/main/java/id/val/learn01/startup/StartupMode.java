@@ -0,0 +1,54 @@
+package id.val.learn01.startup;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM launch modes compared by the startup benchmark.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Modes:
+ *    - JVM: plain JVM, no AOT and no application CDS archive
+ *    - FAST: Spring AOT initializers plus the AppCDS archive written by
+ *      the -Pfast-startup training run
+ */
+public enum StartupMode {
+    
+    JVM("jvm"),
+    FAST("fast");
+    
+    private final String key;
+    
+    StartupMode(String key) {
+        this.key = key;
+    }
+    
+    public String key() {
+        return key;
+    }
+    
+    /**
+     * JVM options for this mode
+     * @param archive AppCDS archive of the application
+     * @return options placed before the class path
+     */
+    public List<String> jvmOptions(Path archive) {
+        List<String> options = new ArrayList<>();
+        if (this == FAST) {
+            options.add("-XX:SharedArchiveFile=" + archive);
+            options.add("-Xlog:cds=off");
+            options.add("-Dspring.aot.enabled=true");
+        }
+        return options;
+    }
+    
+    public static StartupMode fromKey(String key) {
+        for (StartupMode mode : values()) {
+            if (mode.key.equals(key)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown mode: " + key);
+    }
+}
@@ -0,0 +1,82 @@
+package id.val.learn01.startup;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line options for the startup benchmark.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Options (all in --key=value form):
+ *    - app-dir: directory with the -Pfast-startup build (jar, lib/, .jsa),
+ *      default ../target
+ *    - modes: launch modes to measure, e.g. jvm,fast (default both)
+ *    - iterations: launches per mode (default 5)
+ *    - timeout: seconds to wait for the first request (default 120)
+ *    - baseline / write-baseline: regression gate, as in the load test
+ *    - tolerance: allowed relative increase of the median (default 0.20)
+ *    - output: JSON report path
+ * 
+ * 2. Spring Properties:
+ *    - Any other option with a dot in its key is passed to the launched
+ *      application, e.g. --spring.datasource.url=... for a local MySQL
+ */
+@Getter
+public class StartupOptions {
+    
+    private Path appDir = Path.of("..", "target");
+    private final List<StartupMode> modes = new ArrayList<>(List.of(StartupMode.values()));
+    private int iterations = 5;
+    private int timeout = 120;
+    private Path baseline;
+    private boolean writeBaseline;
+    private double tolerance = 0.20;
+    private Path output = Path.of("target", "startup-result.json");
+    private final List<String> springProperties = new ArrayList<>();
+    
+    /**
+     * Parses command line arguments
+     * @param args arguments in --key=value form
+     * @return parsed options
+     * @throws IllegalArgumentException if an option is unknown or malformed
+     */
+    public static StartupOptions parse(String[] args) {
+        StartupOptions options = new StartupOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String key = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+            String value = separator < 0 ? "true" : arg.substring(separator + 1);
+            switch (key) {
+                case "app-dir" -> options.appDir = Path.of(value);
+                case "modes" -> {
+                    options.modes.clear();
+                    for (String mode : value.split(",")) {
+                        options.modes.add(StartupMode.fromKey(mode.trim()));
+                    }
+                }
+                case "iterations" -> options.iterations = Integer.parseInt(value);
+                case "timeout" -> options.timeout = Integer.parseInt(value);
+                case "baseline" -> options.baseline = Path.of(value);
+                case "write-baseline" -> options.writeBaseline = Boolean.parseBoolean(value);
+                case "tolerance" -> options.tolerance = Double.parseDouble(value);
+                case "output" -> options.output = Path.of(value);
+                default -> {
+                    if (!key.contains(".")) {
+                        throw new IllegalArgumentException("Unknown option: --" + key);
+                    }
+                    options.springProperties.add(key + "=" + value);
+                }
+            }
+        }
+        if (options.iterations <= 0 || options.modes.isEmpty()) {
+            throw new IllegalArgumentException("iterations must be positive and at least one mode is required");
+        }
+        return options;
+    }
+}
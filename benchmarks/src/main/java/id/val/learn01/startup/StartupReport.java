@@ -0,0 +1,139 @@
+package id.val.learn01.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Result of a startup benchmark run.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Median, min and max of startup and time to first request per mode
+ *    - Console table, JSON output and a properties baseline
+ * 
+ * 2. Regression Gate:
+ *    - A mode fails if its median startup or TTFR exceeds the baseline
+ *      median by more than the tolerance
+ */
+public class StartupReport {
+    
+    private final Map<StartupMode, List<Sample>> samples;
+    
+    public StartupReport(Map<StartupMode, List<Sample>> samples) {
+        this.samples = samples;
+    }
+    
+    /**
+     * Prints a summary table
+     * @param out destination
+     */
+    public void print(PrintStream out) {
+        out.printf("%-6s %5s %14s %14s %14s %14s%n", "mode", "runs", "startup p50", "startup max", "ttfr p50", "ttfr max");
+        summary().forEach((mode, stats) -> out.printf("%-6s %5d %11.0f ms %11.0f ms %11.0f ms %11.0f ms%n",
+                mode.key(), stats.get("runs"), stats.get("startupMedianMs"), stats.get("startupMaxMs"),
+                stats.get("ttfrMedianMs"), stats.get("ttfrMaxMs")));
+    }
+    
+    /**
+     * Writes the report as JSON
+     * @param path output file
+     * @throws IOException if the file cannot be written
+     */
+    public void writeJson(Path path) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        summary().forEach((mode, stats) -> report.put(mode.key(), stats));
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+    }
+    
+    /**
+     * Stores this run as the baseline
+     * @param path baseline properties file
+     * @throws IOException if the file cannot be written
+     */
+    public void writeBaseline(Path path) throws IOException {
+        Properties properties = new Properties();
+        summary().forEach((mode, stats) -> {
+            properties.setProperty(mode.key() + ".startupMs", String.valueOf(stats.get("startupMedianMs")));
+            properties.setProperty(mode.key() + ".ttfrMs", String.valueOf(stats.get("ttfrMedianMs")));
+        });
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            properties.store(writer, "learn01 startup baseline");
+        }
+    }
+    
+    /**
+     * Compares this run against a baseline
+     * @param path baseline properties file
+     * @param tolerance allowed relative increase of the medians
+     * @return human readable regressions, empty if the run passes
+     * @throws IOException if the baseline cannot be read
+     */
+    public List<String> compare(Path path, double tolerance) throws IOException {
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            baseline.load(reader);
+        }
+        List<String> regressions = new ArrayList<>();
+        summary().forEach((mode, stats) -> {
+            check(regressions, baseline, mode.key() + ".startupMs", (double) stats.get("startupMedianMs"), tolerance);
+            check(regressions, baseline, mode.key() + ".ttfrMs", (double) stats.get("ttfrMedianMs"), tolerance);
+        });
+        return regressions;
+    }
+    
+    private static void check(List<String> regressions, Properties baseline, String key, double value, double tolerance) {
+        String expected = baseline.getProperty(key);
+        if (expected != null && value > Double.parseDouble(expected) * (1 + tolerance)) {
+            regressions.add(String.format("%s median %.0f ms exceeds baseline %s ms", key, value, expected));
+        }
+    }
+    
+    private Map<StartupMode, Map<String, Object>> summary() {
+        Map<StartupMode, Map<String, Object>> summary = new LinkedHashMap<>();
+        samples.forEach((mode, runs) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("runs", runs.size());
+            stats.put("startupMedianMs", median(runs, Sample::startupMs));
+            stats.put("startupMinMs", runs.stream().mapToDouble(Sample::startupMs).min().orElse(Double.NaN));
+            stats.put("startupMaxMs", runs.stream().mapToDouble(Sample::startupMs).max().orElse(Double.NaN));
+            stats.put("ttfrMedianMs", median(runs, Sample::ttfrMs));
+            stats.put("ttfrMinMs", runs.stream().mapToDouble(Sample::ttfrMs).min().orElse(Double.NaN));
+            stats.put("ttfrMaxMs", runs.stream().mapToDouble(Sample::ttfrMs).max().orElse(Double.NaN));
+            summary.put(mode, stats);
+        });
+        return summary;
+    }
+    
+    private static double median(List<Sample> runs, ToDoubleFunction<Sample> metric) {
+        double[] values = runs.stream().mapToDouble(metric).sorted().toArray();
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+    
+    /**
+     * One launch
+     * @param startupMs JVM-reported time until the context was started
+     * @param ttfrMs time from launch to the first successful request
+     */
+    public record Sample(double startupMs, double ttfrMs) {
+    }
+}
@@ -3,6 +3,7 @@ package id.val.learn01;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for the Spring Boot application.
@@ -18,6 +19,7 @@ import org.springframework.cache.annotation.EnableCaching;
  *    - Spring Boot auto-configuration
  *    - Component scanning
  *    - Caching support
+ *    - Scheduled tasks (e.g. adaptive pool sizing)
  *    - Web application support
  * 
  * 3. Configuration:
@@ -34,6 +36,7 @@ import org.springframework.cache.annotation.EnableCaching;
  */
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 public class Learn01Application {
     
     /**
@@ -1,17 +1,23 @@
 package id.val.learn01.aspect;
 
 import id.val.learn01.annotation.RateLimit;
+import id.val.learn01.tracing.Span;
+import id.val.learn01.tracing.Tracer;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Bucket4j;
 import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -48,7 +54,13 @@ import java.util.concurrent.ConcurrentHashMap;
  *    - Clear error messages
  *    - Proper exception handling
  * 
- * 5. Best Practices:
+ * 5. Metrics:
+ *    - ratelimit.requests{bucket, outcome=accepted|rejected}
+ *    - Counters are created once per bucket, so recording is a single increment
+ *    - The bucket check runs in a "ratelimit" span (detail: bucket name),
+ *      so a trace shows the time spent in the limiter itself
+ * 
+ * 6. Best Practices:
  *    - Thread safety
  *    - Efficient bucket management
  *    - Clear error messages
@@ -58,7 +70,16 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class RateLimitAspect {
     
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private static final String RATE_LIMIT_SPAN = "ratelimit";
+    
+    private final Map<Method, MeteredBucket> buckets = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    
+    public RateLimitAspect(MeterRegistry meterRegistry, Tracer tracer) {
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+    }
     
     /**
      * Implements rate limiting around annotated methods
@@ -69,16 +90,46 @@ public class RateLimitAspect {
      */
     @Around("@annotation(rateLimit)")
     public Object rateLimit(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
-        String key = joinPoint.getSignature().toLongString();
-        Bucket bucket = buckets.computeIfAbsent(key, k -> createBucket(rateLimit));
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MeteredBucket bucket = buckets.computeIfAbsent(method, m -> createMeteredBucket(m, rateLimit));
         
-        if (bucket.tryConsume(1)) {
+        boolean accepted;
+        try (Span span = tracer.startSpan(RATE_LIMIT_SPAN, bucket.name())) {
+            accepted = bucket.bucket().tryConsume(1);
+        }
+        
+        if (accepted) {
+            bucket.accepted().increment();
             return joinPoint.proceed();
         } else {
+            bucket.rejected().increment();
             throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded");
         }
     }
     
+    /**
+     * Creates a bucket together with its accept/reject counters
+     * @param method the rate limited method
+     * @param rateLimit the rate limit configuration
+     * @return bucket with its counters
+     */
+    private MeteredBucket createMeteredBucket(Method method, RateLimit rateLimit) {
+        String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        return new MeteredBucket(
+                name,
+                createBucket(rateLimit),
+                counter(name, "accepted"),
+                counter(name, "rejected"));
+    }
+    
+    private Counter counter(String bucketName, String outcome) {
+        return Counter.builder("ratelimit.requests")
+                .description("Requests checked by RateLimitAspect")
+                .tag("bucket", bucketName)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+    
     /**
      * Creates a new rate limiting bucket
      * @param rateLimit the rate limit configuration
@@ -89,4 +140,7 @@ public class RateLimitAspect {
         Bandwidth limit = Bandwidth.classic(rateLimit.limit(), refill);
         return Bucket4j.builder().addLimit(limit).build();
     }
+    
+    private record MeteredBucket(String name, Bucket bucket, Counter accepted, Counter rejected) {
+    }
 } 
\ No newline at end of file
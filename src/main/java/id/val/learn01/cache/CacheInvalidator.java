@@ -0,0 +1,124 @@
+package id.val.learn01.cache;
+
+import id.val.learn01.changelog.ChangeLog;
+import id.val.learn01.changelog.ChangeLogListener;
+import id.val.learn01.model.User;
+import id.val.learn01.model.UserChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Applies user changes made by other instances to the local caches.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Fed by ChangeLogPoller; changes from this instance are skipped,
+ *      UserService already evicted for them
+ *    - Opens the CacheLoadRouting window before evicting, so entries
+ *      reloaded while replicas lag behind the other instance's write are
+ *      read from the primary
+ *    - userById: an UPDATED change replaces a cached entry with an older
+ *      version in place (no database read); DELETED evicts the key
+ *    - users: any change evicts the list, once per batch
+ *    - userSearch: any change advances the generation, once per batch
+ *    - Hibernate second-level cache: UPDATED and DELETED evict the User
+ *      entity; a cached email resolution that became stale is detected
+ *      by ShardedUserRepository.findByEmail, which checks the email of
+ *      the loaded user
+ * 
+ * 2. Staleness:
+ *    - Bounded by app.change-log.poll-interval plus the poll time, see
+ *      the changelog.lag timer
+ * 
+ * 3. Metrics:
+ *    - cache.remote.invalidations{cache, action}: replaced/evicted entries
+ */
+@Component
+public class CacheInvalidator implements ChangeLogListener {
+    
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ChangeLog changeLog;
+    private final UserSearchCache userSearchCache;
+    private final CacheLoadRouting cacheLoadRouting;
+    private final Counter replaced;
+    private final Counter evicted;
+    private final Counter listEvicted;
+    
+    public CacheInvalidator(CacheManager cacheManager, EntityManagerFactory entityManagerFactory,
+                            ChangeLog changeLog, UserSearchCache userSearchCache, CacheLoadRouting cacheLoadRouting,
+                            MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.changeLog = changeLog;
+        this.userSearchCache = userSearchCache;
+        this.cacheLoadRouting = cacheLoadRouting;
+        this.replaced = counter(meterRegistry, "userById", "replaced");
+        this.evicted = counter(meterRegistry, "userById", "evicted");
+        this.listEvicted = counter(meterRegistry, "users", "evicted");
+    }
+    
+    @Override
+    public void onChanges(int shard, List<UserChange> changes) {
+        GenerationalCaffeineCache userById = (GenerationalCaffeineCache) cacheManager.getCache("userById");
+        boolean remote = false;
+        for (UserChange change : changes) {
+            if (changeLog.getInstanceId().equals(change.getOrigin())) {
+                continue;
+            }
+            if (!remote) {
+                cacheLoadRouting.invalidated();
+            }
+            remote = true;
+            if (change.getType() != UserChange.Type.CREATED) {
+                entityManagerFactory.getCache().evict(User.class, change.getUserId());
+            }
+            switch (change.getType()) {
+                case UPDATED -> userById.replaceIfPresent(change.getUserId(), cached -> {
+                    if (cached instanceof User user && user.getVersion() != null
+                            && user.getVersion() >= change.getVersion()) {
+                        return cached;
+                    }
+                    replaced.increment();
+                    return toUser(change);
+                });
+                case DELETED -> {
+                    if (userById.evictIfPresent(change.getUserId())) {
+                        evicted.increment();
+                    }
+                }
+                case CREATED -> {
+                    // Not cached by id yet; only the list is affected
+                }
+            }
+        }
+        if (remote) {
+            cacheManager.getCache("users").evict(SimpleKey.EMPTY);
+            listEvicted.increment();
+            userSearchCache.invalidate();
+        }
+    }
+    
+    private static User toUser(UserChange change) {
+        User user = new User();
+        user.setId(change.getUserId());
+        user.setName(change.getName());
+        user.setEmail(change.getEmail());
+        user.setVersion(change.getVersion());
+        return user;
+    }
+    
+    private static Counter counter(MeterRegistry meterRegistry, String cache, String action) {
+        return Counter.builder("cache.remote.invalidations")
+                .description("Cache entries changed because of writes on other instances")
+                .tag("cache", cache)
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+}
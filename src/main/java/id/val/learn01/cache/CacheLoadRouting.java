@@ -0,0 +1,74 @@
+package id.val.learn01.cache;
+
+import id.val.learn01.config.ReadWriteRoutingProperties;
+import id.val.learn01.datasource.RoutingContext;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Sends cache loads to the primary while replicas may still miss a write.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Problem:
+ *    - A write evicts its cache entries, and the next miss is a read-only
+ *      load that app.datasource.routing sends to a replica
+ *    - Within the replication lag that load reads the old row and caches
+ *      it for the whole expiry, so even the writer's read-your-writes
+ *      reads are served stale from the cache
+ * 
+ * 2. Class Function:
+ *    - invalidated() is called before userById, users, userSearch or the
+ *      second-level cache are invalidated, for local writes, committed
+ *      import parts and changes of other instances
+ *    - For the read-your-writes window after that (never shorter than
+ *      max-lag), load() runs cache loaders with
+ *      RoutingContext.isPrimaryRequired() set, so they read the primary
+ *    - Replicas behind by more than max-lag are not used, so a load after
+ *      the window sees the write on any replica
+ * 
+ * 3. Cost:
+ *    - One volatile read per cache miss; without routing the window is
+ *      zero and load() only runs the loader
+ */
+@Component
+public class CacheLoadRouting {
+    
+    private final long windowNanos;
+    private volatile long primaryUntil;
+    
+    public CacheLoadRouting(ReadWriteRoutingProperties properties) {
+        Duration window = properties.getReadYourWritesWindow().compareTo(properties.getMaxLag()) >= 0
+                ? properties.getReadYourWritesWindow() : properties.getMaxLag();
+        this.windowNanos = properties.isEnabled() ? window.toNanos() : 0;
+        this.primaryUntil = System.nanoTime();
+    }
+    
+    /**
+     * Starts (or extends) the window in which cache loads read the primary;
+     * call before the cache entries are evicted
+     */
+    public void invalidated() {
+        if (windowNanos > 0) {
+            primaryUntil = System.nanoTime() + windowNanos;
+        }
+    }
+    
+    /**
+     * Runs a cache loader, on the primary if a cache was invalidated within the window
+     * @param loader database read that fills a cache
+     * @return result of the loader
+     */
+    public <T> T load(Supplier<T> loader) {
+        if (windowNanos == 0 || System.nanoTime() - primaryUntil >= 0 || RoutingContext.isPrimaryRequired()) {
+            return loader.get();
+        }
+        RoutingContext.setPrimaryRequired(true);
+        try {
+            return loader.get();
+        } finally {
+            RoutingContext.setPrimaryRequired(false);
+        }
+    }
+}
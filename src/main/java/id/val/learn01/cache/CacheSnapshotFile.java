@@ -0,0 +1,185 @@
+package id.val.learn01.cache;
+
+import id.val.learn01.model.User;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary file format of the user cache snapshot.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Layout (big-endian):
+ *    - int magic "L01S", int format version, long creation time (epoch ms)
+ *    - userById section: int count, then count entries
+ *    - users section: byte present (0/1), then int count and entries
+ *    - long CRC32 of everything before it
+ *    - Entry: long id, long version, name and email as int length + UTF-8
+ * 
+ * 2. Writing:
+ *    - Streamed to a temporary file next to the target, forced to disk,
+ *      then atomically renamed, so a crash never leaves a torn snapshot
+ *    - Owner-only permissions where the file system supports them; the
+ *      snapshot contains names and emails
+ * 
+ * 3. Reading:
+ *    - The file is memory-mapped and parsed in place, no read buffers
+ *    - A bad magic, version or checksum is an IOException; the caller
+ *      starts cold
+ */
+public final class CacheSnapshotFile {
+    
+    private static final int MAGIC = 0x4C303153;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int CHECKSUM_BYTES = 8;
+    
+    private CacheSnapshotFile() {
+    }
+    
+    /**
+     * Writes a snapshot, replacing the previous file atomically
+     * @param path target file; parent directories are created
+     * @param snapshot entries to write
+     * @return size of the written file in bytes
+     * @throws IOException if the file cannot be written
+     */
+    public static long write(Path path, Snapshot snapshot) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            restrictPermissions(temporary);
+            OutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            CRC32 checksum = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(buffered, checksum));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(snapshot.createdAt().toEpochMilli());
+            writeUsers(out, snapshot.usersById());
+            out.writeBoolean(snapshot.allUsers() != null);
+            if (snapshot.allUsers() != null) {
+                writeUsers(out, snapshot.allUsers());
+            }
+            out.flush();
+            // The checksum itself is written past the CheckedOutputStream
+            new DataOutputStream(buffered).writeLong(checksum.getValue());
+            buffered.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(path);
+    }
+    
+    /**
+     * Memory-maps and parses a snapshot
+     * @param path snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public static Snapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + CHECKSUM_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Unexpected snapshot size " + size + " of " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.duplicate().limit((int) size - CHECKSUM_BYTES));
+            if (checksum.getValue() != buffer.getLong((int) size - CHECKSUM_BYTES)) {
+                throw new IOException("Checksum mismatch in " + path);
+            }
+            buffer.limit((int) size - CHECKSUM_BYTES);
+            
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a cache snapshot: " + path);
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format " + formatVersion + " in " + path);
+            }
+            Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+            List<User> usersById = readUsers(buffer);
+            List<User> allUsers = buffer.get() != 0 ? readUsers(buffer) : null;
+            return new Snapshot(createdAt, usersById, allUsers);
+        }
+    }
+    
+    private static void writeUsers(DataOutputStream out, List<User> users) throws IOException {
+        out.writeInt(users.size());
+        for (User user : users) {
+            out.writeLong(user.getId());
+            out.writeLong(user.getVersion() == null ? 0 : user.getVersion());
+            writeString(out, user.getName());
+            writeString(out, user.getEmail());
+        }
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static List<User> readUsers(ByteBuffer buffer) throws IOException {
+        int count = buffer.getInt();
+        // Smallest entry: two longs and two empty strings
+        if (count < 0 || count > buffer.remaining() / 24) {
+            throw new IOException("Corrupt entry count " + count);
+        }
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId(buffer.getLong());
+            user.setVersion(buffer.getLong());
+            user.setName(readString(buffer));
+            user.setEmail(readString(buffer));
+            users.add(user);
+        }
+        return users;
+    }
+    
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Corrupt string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static void restrictPermissions(Path file) throws IOException {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+        }
+    }
+    
+    /**
+     * Contents of a snapshot file
+     * @param createdAt when the snapshot was taken
+     * @param usersById userById entries, hottest first
+     * @param allUsers value of the users cache, or null if it was not cached
+     */
+    public record Snapshot(Instant createdAt, List<User> usersById, List<User> allUsers) {
+    }
+}
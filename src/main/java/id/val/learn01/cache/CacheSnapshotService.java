@@ -0,0 +1,381 @@
+package id.val.learn01.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import id.val.learn01.config.CacheSnapshotProperties;
+import id.val.learn01.model.User;
+import id.val.learn01.repository.ShardedUserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the hot user cache entries to a local file and restores them on startup.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Snapshot:
+ *    - On graceful shutdown (after the web server has stopped taking
+ *      requests) and every app.cache.snapshot.interval
+ *    - The hottest max-entries userById entries (Caffeine eviction order)
+ *      and the users list, each with its optimistic lock version
+ *    - Skipped while a restore is still running, so a half-warm cache never
+ *      replaces a good snapshot
+ * 
+ * 2. Restore:
+ *    - Starts before the web server (SmartLifecycle phase); with
+ *      block-startup it finishes before traffic is admitted, otherwise it
+ *      runs on a background thread while requests are served
+ *    - The file is memory-mapped (CacheSnapshotFile); userById entries are
+ *      validated in batches with one id/version query per shard: unchanged
+ *      entries are restored, changed ones are re-read from the database,
+ *      deleted ones are dropped
+ *    - The users list is restored only if every id and version still matches
+ *    - Entries are added with putIfAbsent, so values loaded by live traffic win
+ * 
+ * 3. Concurrent Writes:
+ *    - GenerationalCaffeineCache generation is read before validating and
+ *      re-checked after putting; if a write evicted in between, the restored
+ *      entries of that batch are removed again
+ * 
+ * 4. Metrics:
+ *    - cache.snapshot.write / cache.snapshot.load: duration timers
+ *    - cache.snapshot.entries{cache, outcome}: restored/refreshed/dropped
+ *    - cache.snapshot.warmup.hit.ratio{cache}: hit ratio since startup,
+ *      frozen when app.cache.snapshot.warmup-window ends
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.cache.snapshot", name = "enabled", havingValue = "true")
+public class CacheSnapshotService implements SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheSnapshotService.class);
+    
+    /** Web server start/stop runs at DEFAULT_PHASE - 2048; start before it, stop after it */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final String USER_BY_ID = "userById";
+    private static final String USERS = "users";
+    
+    private final CacheSnapshotProperties properties;
+    private final CacheManager cacheManager;
+    private final ShardedUserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final Timer writeTimer;
+    private final Timer loadTimer;
+    private final Map<String, WarmupWindow> warmupWindows = new HashMap<>();
+    private volatile boolean running;
+    private volatile boolean restoring;
+    private Thread restoreThread;
+    
+    public CacheSnapshotService(CacheSnapshotProperties properties, CacheManager cacheManager,
+                                ShardedUserRepository userRepository, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cacheManager = cacheManager;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.writeTimer = Timer.builder("cache.snapshot.write")
+                .description("Time to write the cache snapshot")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("cache.snapshot.load")
+                .description("Time to load and validate the cache snapshot")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        for (String name : List.of(USER_BY_ID, USERS)) {
+            WarmupWindow window = new WarmupWindow(name, nativeCache(name));
+            warmupWindows.put(name, window);
+            Gauge.builder("cache.snapshot.warmup.hit.ratio", window, WarmupWindow::hitRatio)
+                    .description("Cache hit ratio during the warm-up window after startup")
+                    .tag("cache", name)
+                    .register(meterRegistry);
+        }
+        CompletableFuture.delayedExecutor(properties.getWarmupWindow().toMillis(), TimeUnit.MILLISECONDS)
+                .execute(this::closeWarmupWindows);
+        
+        if (!Files.exists(properties.getPath())) {
+            logger.info("No cache snapshot at {}, starting cold", properties.getPath().toAbsolutePath());
+            return;
+        }
+        restoring = true;
+        if (properties.isBlockStartup()) {
+            restore();
+        } else {
+            restoreThread = new Thread(this::restore, "cache-snapshot-restore");
+            restoreThread.setDaemon(true);
+            restoreThread.start();
+        }
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = restoreThread;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        snapshot();
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+    
+    /**
+     * Periodic snapshot
+     */
+    @Scheduled(fixedDelayString = "#{@cacheSnapshotProperties.interval.toMillis()}",
+            initialDelayString = "#{@cacheSnapshotProperties.interval.toMillis()}")
+    public void scheduledSnapshot() {
+        if (running) {
+            snapshot();
+        }
+    }
+    
+    /**
+     * Writes the hot entries to the snapshot file
+     * @return number of userById entries written, or -1 if skipped or failed
+     */
+    public synchronized int snapshot() {
+        if (restoring) {
+            logger.info("Cache snapshot skipped, restore still running");
+            return -1;
+        }
+        long start = System.nanoTime();
+        try {
+            List<User> usersById = new ArrayList<>();
+            Cache<Object, Object> byId = nativeCache(USER_BY_ID);
+            byId.policy().eviction()
+                    .map(eviction -> eviction.hottest(properties.getMaxEntries()))
+                    .orElseGet(byId::asMap)
+                    .values()
+                    .forEach(value -> {
+                        if (value instanceof User user && usersById.size() < properties.getMaxEntries()) {
+                            usersById.add(user);
+                        }
+                    });
+            List<User> allUsers = null;
+            if (properties.isIncludeUserList()
+                    && nativeCache(USERS).getIfPresent(SimpleKey.EMPTY) instanceof List<?> list) {
+                allUsers = new ArrayList<>(list.size());
+                for (Object value : list) {
+                    allUsers.add((User) value);
+                }
+            }
+            long bytes = CacheSnapshotFile.write(properties.getPath(),
+                    new CacheSnapshotFile.Snapshot(Instant.now(), usersById, allUsers));
+            long elapsed = System.nanoTime() - start;
+            writeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("Cache snapshot written: {} userById entries, users list {}, {} KB in {} ms",
+                    usersById.size(), allUsers == null ? "absent" : allUsers.size() + " entries",
+                    bytes / 1024, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return usersById.size();
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Could not write cache snapshot to {}", properties.getPath(), ex);
+            return -1;
+        }
+    }
+    
+    /**
+     * Loads, validates and restores the snapshot file
+     */
+    private void restore() {
+        long start = System.nanoTime();
+        try {
+            CacheSnapshotFile.Snapshot snapshot = CacheSnapshotFile.read(properties.getPath());
+            Duration age = Duration.between(snapshot.createdAt(), Instant.now());
+            if (age.compareTo(properties.getMaxAge()) > 0) {
+                logger.info("Cache snapshot is {} old, ignoring it", age);
+                return;
+            }
+            int restored = restoreUsersById(snapshot.usersById());
+            boolean listRestored = snapshot.allUsers() != null && restoreUserList(snapshot.allUsers());
+            long elapsed = System.nanoTime() - start;
+            loadTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("Cache snapshot from {} restored: {} of {} userById entries, users list {}, in {} ms",
+                    snapshot.createdAt(), restored, snapshot.usersById().size(),
+                    listRestored ? "restored" : "not restored", TimeUnit.NANOSECONDS.toMillis(elapsed));
+        } catch (NoSuchFileException ex) {
+            logger.info("Cache snapshot disappeared, starting cold");
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Could not restore cache snapshot from {}, starting cold", properties.getPath(), ex);
+        } finally {
+            restoring = false;
+        }
+    }
+    
+    private int restoreUsersById(List<User> entries) {
+        GenerationalCaffeineCache cache = cache(USER_BY_ID);
+        Cache<Object, Object> nativeCache = cache.getNativeCache();
+        int batchSize = Math.max(1, properties.getValidateBatchSize());
+        int restoredTotal = 0;
+        for (int from = 0; from < entries.size() && running; from += batchSize) {
+            List<User> batch = entries.subList(from, Math.min(entries.size(), from + batchSize));
+            long generation = cache.getGeneration();
+            
+            List<Long> ids = new ArrayList<>(batch.size());
+            batch.forEach(user -> ids.add(user.getId()));
+            Map<Long, Long> versions = userRepository.findVersions(ids);
+            List<User> valid = new ArrayList<>(batch.size());
+            Set<Long> changed = new HashSet<>();
+            for (User user : batch) {
+                Long version = versions.get(user.getId());
+                if (version == null) {
+                    continue;
+                }
+                if (version.equals(user.getVersion())) {
+                    valid.add(user);
+                } else {
+                    changed.add(user.getId());
+                }
+            }
+            List<User> refreshed = changed.isEmpty() ? List.of() : userRepository.findAllById(changed);
+            valid.addAll(refreshed);
+            
+            List<User> put = new ArrayList<>(valid.size());
+            for (User user : valid) {
+                if (nativeCache.asMap().putIfAbsent(user.getId(), user) == null) {
+                    put.add(user);
+                }
+            }
+            if (cache.getGeneration() != generation) {
+                // A write evicted while this batch was validated; its values may be stale
+                put.forEach(user -> nativeCache.asMap().remove(user.getId(), user));
+                put.clear();
+            }
+            int refreshedPut = 0;
+            for (User user : put) {
+                if (changed.contains(user.getId())) {
+                    refreshedPut++;
+                }
+            }
+            restoredTotal += put.size();
+            count(USER_BY_ID, "restored", put.size() - refreshedPut);
+            count(USER_BY_ID, "refreshed", refreshedPut);
+            count(USER_BY_ID, "dropped", batch.size() - put.size());
+        }
+        return restoredTotal;
+    }
+    
+    private boolean restoreUserList(List<User> users) {
+        if (!running) {
+            return false;
+        }
+        GenerationalCaffeineCache cache = cache(USERS);
+        long generation = cache.getGeneration();
+        Map<Long, Long> versions = userRepository.findAllVersions();
+        boolean unchanged = versions.size() == users.size()
+                && users.stream().allMatch(user -> user.getVersion().equals(versions.get(user.getId())));
+        if (!unchanged || users.isEmpty()) {
+            count(USERS, "dropped", 1);
+            return false;
+        }
+        Cache<Object, Object> nativeCache = cache.getNativeCache();
+        if (nativeCache.asMap().putIfAbsent(SimpleKey.EMPTY, users) != null) {
+            count(USERS, "dropped", 1);
+            return false;
+        }
+        if (cache.getGeneration() != generation) {
+            nativeCache.asMap().remove(SimpleKey.EMPTY, users);
+            count(USERS, "dropped", 1);
+            return false;
+        }
+        count(USERS, "restored", 1);
+        return true;
+    }
+    
+    private void closeWarmupWindows() {
+        for (WarmupWindow window : warmupWindows.values()) {
+            window.close();
+            logger.info("Warm-up hit ratio of cache {} over the first {}: {} ({} requests)",
+                    window.name, properties.getWarmupWindow(),
+                    String.format("%.3f", window.hitRatio()), window.requests());
+        }
+    }
+    
+    private void count(String cacheName, String outcome, long amount) {
+        if (amount > 0) {
+            Counter.builder("cache.snapshot.entries")
+                    .description("Snapshot entries by restore outcome")
+                    .tag("cache", cacheName)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment(amount);
+        }
+    }
+    
+    private GenerationalCaffeineCache cache(String name) {
+        return (GenerationalCaffeineCache) cacheManager.getCache(name);
+    }
+    
+    private Cache<Object, Object> nativeCache(String name) {
+        return cache(name).getNativeCache();
+    }
+    
+    /**
+     * Hit ratio of one cache from startup until the end of the warm-up window
+     */
+    private static final class WarmupWindow {
+        private final String name;
+        private final Cache<Object, Object> cache;
+        private final CacheStats baseline;
+        private volatile CacheStats closed;
+        
+        private WarmupWindow(String name, Cache<Object, Object> cache) {
+            this.name = name;
+            this.cache = cache;
+            this.baseline = cache.stats();
+        }
+        
+        private void close() {
+            closed = cache.stats().minus(baseline);
+        }
+        
+        private CacheStats delta() {
+            CacheStats stats = closed;
+            return stats != null ? stats : cache.stats().minus(baseline);
+        }
+        
+        private double hitRatio() {
+            CacheStats delta = delta();
+            return delta.requestCount() == 0 ? Double.NaN : delta.hitRate();
+        }
+        
+        private long requests() {
+            return delta().requestCount();
+        }
+    }
+}
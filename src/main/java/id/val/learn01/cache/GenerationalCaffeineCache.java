@@ -0,0 +1,141 @@
+package id.val.learn01.cache;
+
+import id.val.learn01.tracing.Span;
+import id.val.learn01.tracing.Tracer;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.CacheOperationInvoker;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caffeine cache that counts its invalidations.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Every evict, clear and invalidate bumps a generation counter
+ *      before the entries are removed
+ *    - Background writers (CacheSnapshotService) read the generation
+ *      before loading from the database and re-check it after putting;
+ *      a changed generation means a write committed in between, so the
+ *      possibly stale entries are removed again
+ * 
+ * 2. Scope:
+ *    - Puts and loads do not change the generation; replaceIfPresent(),
+ *      used for changes made by other instances, does
+ *    - Entries written straight into the native cache bypass the counter
+ *    - advanceGeneration() counts an invalidation without removing
+ *      anything; caches whose keys carry the generation (UserSearchCache)
+ *      use it to make every entry unreachable in O(1)
+ * 
+ * 3. Tracing:
+ *    - get(key, loader), used by @Cacheable(sync = true), adds a "cache"
+ *      span with detail "<name> hit" or "<name> miss"; on a miss the load
+ *      runs in a nested "cache.load" span, so the lookup and the database
+ *      work behind it are told apart
+ */
+public class GenerationalCaffeineCache extends CaffeineCache {
+    
+    static final String CACHE_SPAN = "cache";
+    static final String LOAD_SPAN = "cache.load";
+    
+    private final AtomicLong generation = new AtomicLong();
+    private final Tracer tracer;
+    private final String hitDetail;
+    private final String missDetail;
+    
+    public GenerationalCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                     boolean allowNullValues, Tracer tracer) {
+        super(name, cache, allowNullValues);
+        this.tracer = tracer;
+        this.hitDetail = name + " hit";
+        this.missDetail = name + " miss";
+    }
+    
+    /**
+     * Number of invalidations so far
+     * @return current generation
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+    
+    /**
+     * Counts an invalidation without removing entries
+     * @return the new generation
+     */
+    public long advanceGeneration() {
+        return generation.incrementAndGet();
+    }
+    
+    /**
+     * Replaces a cached value in place, counted as an invalidation
+     * @param key cache key
+     * @param update maps the cached value to the new one; returning null removes the entry
+     */
+    public void replaceIfPresent(Object key, UnaryOperator<Object> update) {
+        generation.incrementAndGet();
+        getNativeCache().asMap().computeIfPresent(key, (k, value) -> update.apply(value));
+    }
+    
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Span span = tracer.startSpan(CACHE_SPAN, hitDetail);
+        if (!span.isRecording()) {
+            return super.get(key, valueLoader);
+        }
+        try (span) {
+            return super.get(key, () -> {
+                span.detail(missDetail);
+                try (Span load = tracer.startSpan(LOAD_SPAN, getName())) {
+                    try {
+                        return valueLoader.call();
+                    } catch (Exception ex) {
+                        load.error(original(ex));
+                        throw ex;
+                    }
+                }
+            });
+        } catch (RuntimeException ex) {
+            span.error(original(ex));
+            throw ex;
+        }
+    }
+    
+    /**
+     * Exception thrown by the cached method, without the wrappers added by the cache abstraction
+     */
+    private static Throwable original(Throwable failure) {
+        Throwable original = failure;
+        while ((original instanceof ValueRetrievalException
+                || original instanceof CacheOperationInvoker.ThrowableWrapper) && original.getCause() != null) {
+            original = original.getCause();
+        }
+        return original;
+    }
+    
+    @Override
+    public void evict(Object key) {
+        generation.incrementAndGet();
+        super.evict(key);
+    }
+    
+    @Override
+    public boolean evictIfPresent(Object key) {
+        generation.incrementAndGet();
+        return super.evictIfPresent(key);
+    }
+    
+    @Override
+    public void clear() {
+        generation.incrementAndGet();
+        super.clear();
+    }
+    
+    @Override
+    public boolean invalidate() {
+        generation.incrementAndGet();
+        return super.invalidate();
+    }
+}
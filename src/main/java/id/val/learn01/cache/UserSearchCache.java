@@ -0,0 +1,216 @@
+package id.val.learn01.cache;
+
+import id.val.learn01.model.User;
+import id.val.learn01.query.UserQuery;
+import id.val.learn01.repository.ShardedUserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Result cache for user searches, invalidated by generation.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Caches UserQuery results in the "userSearch" cache under a key made
+ *      of the normalized query and the current generation of that cache
+ *    - invalidate() advances the generation: one atomic increment, no key
+ *      scan, no lock; entries of older generations can no longer be looked
+ *      up and age out under the size bound and expireAfterWrite
+ *    - A result is stored under the generation read before the query ran,
+ *      so a write committed while it ran leaves it unreachable
+ * 
+ * 2. Storage:
+ *    - Only the ids of the page, its Pageable and the total are cached;
+ *      the users come from userById, so a user on many cached pages is
+ *      held once
+ *    - Ids missing from userById are read with one findAllById() and put
+ *      into userById, unless userById was invalidated meanwhile (same
+ *      generation check as CacheSnapshotService)
+ *    - A cached id whose user no longer exists means the entry is stale;
+ *      it is dropped and the query runs again
+ * 
+ * 3. Invalidation:
+ *    - UserService after each write, UserImporter after each committed
+ *      shard transaction, CacheInvalidator for changes of other instances
+ * 
+ * 4. Replicas:
+ *    - Searches and hydration are cache loads and run through
+ *      CacheLoadRouting, so shortly after a write they read the primary
+ * 
+ * 5. Metrics:
+ *    - Hits, misses and loads of "userSearch" like the other caches
+ *    - cache.search.hydrated{source=cache|database}: users per source
+ */
+@Component
+public class UserSearchCache {
+    
+    static final String USER_SEARCH = "userSearch";
+    private static final String USER_BY_ID = "userById";
+    private static final int MAX_ATTEMPTS = 2;
+    
+    private final CacheManager cacheManager;
+    private final ShardedUserRepository userRepository;
+    private final CacheLoadRouting cacheLoadRouting;
+    private final Counter hydratedFromCache;
+    private final Counter hydratedFromDatabase;
+    
+    public UserSearchCache(CacheManager cacheManager, ShardedUserRepository userRepository,
+                           CacheLoadRouting cacheLoadRouting, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.userRepository = userRepository;
+        this.cacheLoadRouting = cacheLoadRouting;
+        this.hydratedFromCache = counter(meterRegistry, "cache");
+        this.hydratedFromDatabase = counter(meterRegistry, "database");
+    }
+    
+    /**
+     * Searches users, from the cache when the same query ran since the last write
+     * @param query filter, sort and paging parameters
+     * @return requested page of users
+     * @throws IllegalArgumentException if sorting or paging parameters are invalid
+     */
+    public Page<User> search(UserQuery query) {
+        GenerationalCaffeineCache searches = cache(USER_SEARCH);
+        SearchKey key = SearchKey.of(searches.getGeneration(), query);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            AtomicReference<Page<User>> loaded = new AtomicReference<>();
+            IdPage ids = get(searches, key, () -> {
+                loaded.set(cacheLoadRouting.load(() -> userRepository.search(query)));
+                return IdPage.of(loaded.get());
+            });
+            if (loaded.get() != null) {
+                return loaded.get();
+            }
+            List<User> users = hydrate(ids.ids());
+            if (users != null) {
+                return new PageImpl<>(users, ids.pageable(), ids.total());
+            }
+            // A user on the cached page no longer exists: the entry is stale, search again
+            searches.getNativeCache().asMap().remove(key, ids);
+        }
+        return cacheLoadRouting.load(() -> userRepository.search(query));
+    }
+    
+    /**
+     * Makes every cached search result unreachable; call after a write has committed
+     */
+    public void invalidate() {
+        cache(USER_SEARCH).advanceGeneration();
+    }
+    
+    /**
+     * Cached ids of a search, loading them on a miss; concurrent misses of one key load once
+     */
+    private static IdPage get(GenerationalCaffeineCache searches, SearchKey key, Callable<IdPage> loader) {
+        try {
+            return searches.get(key, loader);
+        } catch (Cache.ValueRetrievalException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+    
+    /**
+     * Users of the given ids in the same order, from userById where cached
+     * @return the users, or null if one of them no longer exists
+     */
+    private List<User> hydrate(List<Long> ids) {
+        GenerationalCaffeineCache usersById = cache(USER_BY_ID);
+        Map<Long, User> found = new HashMap<>(ids.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            User user = usersById.get(id, User.class);
+            if (user != null) {
+                found.put(id, user);
+            } else {
+                missing.add(id);
+            }
+        }
+        hydratedFromCache.increment(found.size());
+        if (!missing.isEmpty()) {
+            long generation = usersById.getGeneration();
+            List<User> loaded = cacheLoadRouting.load(() -> userRepository.findAllById(missing));
+            ConcurrentMap<Object, Object> nativeMap = usersById.getNativeCache().asMap();
+            for (User user : loaded) {
+                found.put(user.getId(), user);
+                nativeMap.putIfAbsent(user.getId(), user);
+            }
+            if (usersById.getGeneration() != generation) {
+                // A write evicted from userById while these were read; they may be stale there
+                loaded.forEach(user -> nativeMap.remove(user.getId(), user));
+            }
+            hydratedFromDatabase.increment(loaded.size());
+        }
+        List<User> users = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            User user = found.get(id);
+            if (user == null) {
+                return null;
+            }
+            users.add(user);
+        }
+        return users;
+    }
+    
+    private GenerationalCaffeineCache cache(String name) {
+        return (GenerationalCaffeineCache) cacheManager.getCache(name);
+    }
+    
+    private static Counter counter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("cache.search.hydrated")
+                .description("Users of cached search results, by where they were read from")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Cache key: the generation and the query as the repository interprets it
+     */
+    record SearchKey(long generation, Long id, String name, String email, int page, int size, String sortBy,
+                     String sortDirection) {
+        
+        static SearchKey of(long generation, UserQuery query) {
+            return new SearchKey(generation, query.getId(), fragment(query.getName()), fragment(query.getEmail()),
+                    query.getPage() == null ? 0 : query.getPage(),
+                    query.getSize() == null ? 10 : query.getSize(),
+                    query.getSortBy() == null ? "id" : query.getSortBy(),
+                    query.getSortDirection() == null ? "ASC" : query.getSortDirection().toUpperCase(Locale.ROOT));
+        }
+        
+        /**
+         * Name and email filters match case-insensitively on the trimmed fragment; blank means no filter
+         */
+        private static String fragment(String value) {
+            return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    /**
+     * Cached result: ids of the page in order, the page request and the total
+     */
+    record IdPage(List<Long> ids, Pageable pageable, long total) {
+        
+        static IdPage of(Page<User> page) {
+            List<Long> ids = new ArrayList<>(page.getNumberOfElements());
+            page.getContent().forEach(user -> ids.add(user.getId()));
+            return new IdPage(List.copyOf(ids), page.getPageable(), page.getTotalElements());
+        }
+    }
+}
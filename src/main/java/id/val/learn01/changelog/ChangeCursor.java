@@ -0,0 +1,110 @@
+package id.val.learn01.changelog;
+
+import java.util.Arrays;
+
+/**
+ * Position in the change feed: the last delivered change id of every shard.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Format:
+ *    - Shard positions joined with '.', e.g. "1042" with one shard or
+ *      "1042.977.1003" with three; clients treat it as opaque
+ *    - Used as the SSE event id, so EventSource resumes with Last-Event-ID
+ * 
+ * 2. Ordering:
+ *    - Each shard position only grows; shards are independent, there is
+ *      no order between changes of different shards
+ */
+public final class ChangeCursor {
+    
+    private final long[] positions;
+    
+    private ChangeCursor(long[] positions) {
+        this.positions = positions;
+    }
+    
+    /**
+     * Creates a cursor from per-shard positions
+     * @param positions last change id per shard
+     * @return cursor
+     */
+    public static ChangeCursor of(long[] positions) {
+        return new ChangeCursor(positions.clone());
+    }
+    
+    /**
+     * Parses a cursor produced by format()
+     * @param value cursor string
+     * @param shardCount current number of shards
+     * @return cursor
+     * @throws IllegalArgumentException if the value is malformed or from another shard layout
+     */
+    public static ChangeCursor parse(String value, int shardCount) {
+        String[] parts = value.trim().split("\\.");
+        if (parts.length != shardCount) {
+            throw new IllegalArgumentException("Invalid change cursor: " + value);
+        }
+        long[] positions = new long[parts.length];
+        try {
+            for (int shard = 0; shard < parts.length; shard++) {
+                positions[shard] = Long.parseLong(parts[shard]);
+                if (positions[shard] < 0) {
+                    throw new IllegalArgumentException("Invalid change cursor: " + value);
+                }
+            }
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid change cursor: " + value);
+        }
+        return new ChangeCursor(positions);
+    }
+    
+    public int getShardCount() {
+        return positions.length;
+    }
+    
+    public long position(int shard) {
+        return positions[shard];
+    }
+    
+    /**
+     * Copy with one shard moved forward
+     * @param shard shard index
+     * @param position new last change id of the shard
+     * @return new cursor
+     */
+    public ChangeCursor with(int shard, long position) {
+        long[] copy = positions.clone();
+        copy[shard] = position;
+        return new ChangeCursor(copy);
+    }
+    
+    /**
+     * Cursor string
+     * @return positions joined with '.'
+     */
+    public String format() {
+        StringBuilder value = new StringBuilder(positions.length * 8);
+        for (int shard = 0; shard < positions.length; shard++) {
+            if (shard > 0) {
+                value.append('.');
+            }
+            value.append(positions[shard]);
+        }
+        return value.toString();
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ChangeCursor cursor && Arrays.equals(positions, cursor.positions);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(positions);
+    }
+    
+    @Override
+    public String toString() {
+        return format();
+    }
+}
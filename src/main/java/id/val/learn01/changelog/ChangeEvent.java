@@ -0,0 +1,23 @@
+package id.val.learn01.changelog;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import id.val.learn01.model.User;
+
+import java.time.Instant;
+
+/**
+ * One user change as sent to feed clients.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Fields:
+ *    - cursor: feed position right after this change; resume from here
+ *    - type: created, updated or deleted
+ *    - userId, version: changed user and its version after the change;
+ *      userId is a JSON string like User.id
+ *    - user: state after the change; null for deleted (tombstone)
+ *    - changedAt: time of the change
+ */
+public record ChangeEvent(String cursor, String type, @JsonSerialize(using = ToStringSerializer.class) long userId,
+                          long version, Instant changedAt, User user) {
+}
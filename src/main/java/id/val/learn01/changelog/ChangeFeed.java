@@ -0,0 +1,398 @@
+package id.val.learn01.changelog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.val.learn01.config.ChangeFeedProperties;
+import id.val.learn01.model.User;
+import id.val.learn01.model.UserChange;
+import id.val.learn01.repository.UserChangeRepository;
+import id.val.learn01.sharding.KWayMerge;
+import id.val.learn01.sharding.ShardTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Incremental feed of user changes: SSE stream and cursor-based pull.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Source:
+ *    - The user_changes log (ChangeLog), ordered per shard by change id;
+ *      deletes are kept there as tombstones until app.change-log.retention
+ *    - Live changes arrive once per poll from ChangeLogPoller; the feed
+ *      never reads past what the poller delivered, so pull and stream
+ *      agree and uncommitted id gaps are never skipped by a cursor
+ * 
+ * 2. Pull (pull):
+ *    - One primary-key range query per shard between the cursor and the
+ *      delivered position, merged by change time; the cost depends on the
+ *      page size, not the table size
+ *    - Without a cursor: no changes, only the current cursor
+ *    - A cursor older than the retained log is 410 Gone; the client
+ *      resyncs with /api/users/export
+ * 
+ * 3. Stream (subscribe):
+ *    - Each connection is an SseEmitter with a bounded queue; a small
+ *      shared pool (app.change-feed.fan-out-threads) drains the queues,
+ *      so idle connections hold no thread
+ *    - Each live change is rendered to JSON once and shared by all
+ *      subscribers
+ *    - With ?since= or Last-Event-ID the gap is backfilled page by page
+ *      from the log before live events; registration and live delivery
+ *      share a lock, so nothing is missed or sent twice in between
+ *    - Live events queued during the backfill are held until it is done:
+ *      their ids cover every shard up to the registration position, so a
+ *      client resuming from one must already have the whole backfill
+ *    - A subscriber that falls more than max-pending events behind is
+ *      disconnected and resumes from its last event id
+ * 
+ * 4. Delivery:
+ *    - At least once; a client that resumes with a cursor from another
+ *      instance may see a few changes again (dedupe by userId + version)
+ * 
+ * 5. Metrics:
+ *    - change.feed.subscribers, change.feed.events,
+ *      change.feed.disconnects{reason}
+ */
+@Component
+public class ChangeFeed implements ChangeLogListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+    private static final SseFrame HEARTBEAT = new SseFrame(null, null, null, "keep-alive");
+    
+    private final UserChangeRepository changeRepository;
+    private final ShardTemplate shardTemplate;
+    private final ChangeLogPoller poller;
+    private final ChangeFeedProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService fanOut;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter sentEvents;
+    /** Delivered position per shard; guarded by this */
+    private long[] positions;
+    
+    public ChangeFeed(UserChangeRepository changeRepository, ShardTemplate shardTemplate, ChangeLogPoller poller,
+                      ChangeFeedProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.changeRepository = changeRepository;
+        this.shardTemplate = shardTemplate;
+        this.poller = poller;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger sequence = new AtomicInteger();
+        this.fanOut = Executors.newFixedThreadPool(Math.max(1, properties.getFanOutThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sentEvents = Counter.builder("change.feed.events")
+                .description("Change events sent to SSE subscribers")
+                .register(meterRegistry);
+        Gauge.builder("change.feed.subscribers", subscribers, Set::size)
+                .description("Open change feed SSE connections")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Reads changes after a cursor
+     * @param since cursor from a previous page or event, or null to start now
+     * @param limit maximum number of changes, capped by app.change-feed.page-size
+     * @return changes and the cursor for the next pull
+     * @throws IllegalArgumentException if the cursor is malformed
+     * @throws ResponseStatusException 410 if the cursor is older than the retained log
+     */
+    public ChangePage pull(String since, int limit) {
+        ChangeCursor upTo = current();
+        if (since == null || since.isBlank()) {
+            return new ChangePage(List.of(), upTo.format());
+        }
+        ChangeCursor from = ChangeCursor.parse(since, upTo.getShardCount());
+        Page page = read(from, upTo, Math.max(1, Math.min(limit, properties.getPageSize())));
+        return new ChangePage(page.events(), page.cursor().format());
+    }
+    
+    /**
+     * Opens an SSE stream of changes
+     * @param since cursor to resume from, or null for live changes only
+     * @return emitter sending "ready", then "created", "updated" and "deleted" events
+     * @throws IllegalArgumentException if the cursor is malformed
+     * @throws ResponseStatusException 410 if the cursor is older than the retained log,
+     *         503 if app.change-feed.max-subscribers is reached
+     */
+    public SseEmitter subscribe(String since) {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(properties.getEmitterTimeout().toMillis());
+        Subscriber subscriber;
+        Page firstPage = null;
+        synchronized (this) {
+            ChangeCursor upTo = current();
+            ChangeCursor from = since == null || since.isBlank() ? upTo : ChangeCursor.parse(since, upTo.getShardCount());
+            if (!from.equals(upTo)) {
+                // Reads under the lock so live delivery cannot move past upTo in between; one page only
+                firstPage = read(from, upTo, properties.getPageSize());
+            }
+            subscriber = new Subscriber(emitter, upTo);
+            subscriber.offer(new SseFrame(from.format(), "ready", "{}", null));
+            if (firstPage != null) {
+                firstPage.events().forEach(event -> subscriber.offer(render(event)));
+                if (firstPage.events().size() == properties.getPageSize()) {
+                    subscriber.backfillFrom = firstPage.cursor();
+                }
+            }
+            subscriber.initialFrames = subscriber.pendingCount.get();
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscriber.schedule();
+        return emitter;
+    }
+    
+    @Override
+    public void onChanges(int shard, List<UserChange> changes) {
+        List<SseFrame> frames = new ArrayList<>(changes.size());
+        synchronized (this) {
+            ChangeCursor cursor = current();
+            for (UserChange change : changes) {
+                cursor = cursor.with(shard, change.getId());
+                frames.add(render(toEvent(change, cursor.format())));
+            }
+            positions[shard] = cursor.position(shard);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offerAll(frames);
+            }
+        }
+    }
+    
+    /**
+     * Sends a keep-alive comment to every subscriber, which also detects closed connections
+     */
+    @Scheduled(fixedDelayString = "#{@changeFeedProperties.heartbeatInterval.toMillis()}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offerAll(List.of(HEARTBEAT));
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+    
+    /**
+     * Position up to which changes were delivered by the poller
+     */
+    private synchronized ChangeCursor current() {
+        if (positions == null) {
+            positions = poller.getWatermarks().stream().mapToLong(Long::longValue).toArray();
+        }
+        return ChangeCursor.of(positions);
+    }
+    
+    /**
+     * Reads one page of changes in (from, upTo] over all shards
+     */
+    private Page read(ChangeCursor from, ChangeCursor upTo, int limit) {
+        // On the primary: a replica may not have every change the poller delivered yet
+        List<List<UserChange>> perShard = shardTemplate.scatter(false, shard -> from.position(shard) >= upTo.position(shard)
+                ? List.of()
+                : changeRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                        from.position(shard), upTo.position(shard), Limit.of(limit)));
+        List<Iterator<ShardChange>> inputs = new ArrayList<>(perShard.size());
+        for (int shard = 0; shard < perShard.size(); shard++) {
+            List<UserChange> changes = perShard.get(shard);
+            long position = from.position(shard);
+            if (position < upTo.position(shard) && (changes.isEmpty() || changes.get(0).getId() != position + 1)) {
+                checkRetained(shard, position);
+            }
+            int index = shard;
+            inputs.add(changes.stream().map(change -> new ShardChange(index, change)).iterator());
+        }
+        
+        Iterator<ShardChange> merged = KWayMerge.merge(inputs, Comparator
+                .comparing((ShardChange shardChange) -> shardChange.change().getChangedAt())
+                .thenComparingInt(ShardChange::shard));
+        ChangeCursor cursor = from;
+        List<ChangeEvent> events = new ArrayList<>();
+        while (merged.hasNext() && events.size() < limit) {
+            ShardChange next = merged.next();
+            cursor = cursor.with(next.shard(), next.change().getId());
+            events.add(toEvent(next.change(), cursor.format()));
+        }
+        return new Page(events, cursor);
+    }
+    
+    /**
+     * Fails if changes right after the position were already pruned
+     */
+    private void checkRetained(int shard, long position) {
+        Long oldest = shardTemplate.inShard(shard, false, changeRepository::findMinId);
+        if (oldest == null || oldest > position + 1) {
+            throw new ResponseStatusException(HttpStatus.GONE,
+                    "Change cursor expired, resync with GET /api/users/export");
+        }
+    }
+    
+    private static ChangeEvent toEvent(UserChange change, String cursor) {
+        User user = null;
+        if (change.getType() != UserChange.Type.DELETED) {
+            user = new User();
+            user.setId(change.getUserId());
+            user.setName(change.getName());
+            user.setEmail(change.getEmail());
+            user.setVersion(change.getVersion());
+        }
+        return new ChangeEvent(cursor, change.getType().name().toLowerCase(Locale.ROOT),
+                change.getUserId(), change.getVersion(), change.getChangedAt(), user);
+    }
+    
+    private SseFrame render(ChangeEvent event) {
+        try {
+            return new SseFrame(event.cursor(), event.type(), objectMapper.writeValueAsString(event), null);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    private void disconnect(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            Counter.builder("change.feed.disconnects")
+                    .description("SSE subscribers disconnected by the server")
+                    .tag("reason", reason)
+                    .register(meterRegistry)
+                    .increment();
+            subscriber.emitter.complete();
+        }
+    }
+    
+    /**
+     * Pre-rendered SSE event or comment
+     */
+    private record SseFrame(String id, String name, String data, String comment) {
+    }
+    
+    private record ShardChange(int shard, UserChange change) {
+    }
+    
+    private record Page(List<ChangeEvent> events, ChangeCursor cursor) {
+    }
+    
+    /**
+     * One SSE connection: a bounded queue drained by the shared fan-out pool, one drain at a time
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final ChangeCursor backfillTo;
+        private final Queue<SseFrame> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        /** Next backfill position, or null once the subscriber is live; fan-out thread only after registration */
+        private volatile ChangeCursor backfillFrom;
+        /** Frames queued by subscribe() not yet sent; they precede the rest of the backfill */
+        private volatile int initialFrames;
+        
+        private Subscriber(SseEmitter emitter, ChangeCursor backfillTo) {
+            this.emitter = emitter;
+            this.backfillTo = backfillTo;
+        }
+        
+        private void offer(SseFrame frame) {
+            pending.add(frame);
+            pendingCount.incrementAndGet();
+        }
+        
+        private void offerAll(List<SseFrame> frames) {
+            if (pendingCount.get() + frames.size() > properties.getMaxPending()) {
+                disconnect(this, "slow");
+                return;
+            }
+            frames.forEach(this::offer);
+            schedule();
+        }
+        
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    fanOut.execute(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    scheduled.set(false);
+                }
+            }
+        }
+        
+        private void drain() {
+            try {
+                for (; initialFrames > 0; initialFrames--) {
+                    pendingCount.decrementAndGet();
+                    send(pending.poll());
+                }
+                while (backfillFrom != null) {
+                    Page page = read(backfillFrom, backfillTo, properties.getPageSize());
+                    for (ChangeEvent event : page.events()) {
+                        send(render(event));
+                    }
+                    backfillFrom = page.events().size() == properties.getPageSize() ? page.cursor() : null;
+                }
+                // Live frames only now: sent before the backfill, their ids would skip it on resume
+                SseFrame frame;
+                while ((frame = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    send(frame);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                disconnect(this, "error");
+                return;
+            } catch (ResponseStatusException ex) {
+                logger.debug("Change feed backfill stopped: {}", ex.getReason());
+                disconnect(this, "expired");
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+        
+        private void send(SseFrame frame) throws IOException {
+            if (frame.comment() != null) {
+                emitter.send(SseEmitter.event().comment(frame.comment()));
+                return;
+            }
+            emitter.send(SseEmitter.event().id(frame.id()).name(frame.name()).data(frame.data()));
+            sentEvents.increment();
+        }
+    }
+}
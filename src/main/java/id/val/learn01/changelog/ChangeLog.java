@@ -0,0 +1,92 @@
+package id.val.learn01.changelog;
+
+import id.val.learn01.model.User;
+import id.val.learn01.model.UserChange;
+import id.val.learn01.repository.MultiRowInsert;
+import id.val.learn01.repository.UserChangeRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Appends user changes to the change log.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - append() inserts a user_changes row in the caller's shard
+ *      transaction, so the change and its log row commit or roll back
+ *      together
+ *    - appendAll() logs many changes with multi-row inserts (bulk import)
+ *    - instanceId identifies this process; pollers skip their own
+ *      changes where the local @CacheEvict already applied them
+ * 
+ * 2. Usage:
+ *    - Called by ShardedUserRepository after the user row is written and
+ *      flushed, so the logged version is the committed one
+ */
+@Component
+public class ChangeLog {
+    
+    private static final List<String> COLUMNS = List.of("user_id", "type", "version", "name", "email", "origin", "changed_at");
+    
+    private final UserChangeRepository changeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+    
+    public ChangeLog(UserChangeRepository changeRepository, JdbcTemplate jdbcTemplate) {
+        this.changeRepository = changeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Id of this application instance, stored as the origin of its changes
+     * @return random id chosen at startup
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+    
+    /**
+     * Logs a change in the current shard transaction
+     * @param user user state after the change (last state for a delete)
+     * @param type kind of change
+     * @return the inserted change
+     * @throws IllegalStateException if no transaction is active
+     */
+    public UserChange append(User user, UserChange.Type type) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Change log rows must be written in the transaction of the change");
+        }
+        UserChange change = new UserChange();
+        change.setUserId(user.getId());
+        change.setType(type);
+        change.setVersion(user.getVersion() == null ? 0 : user.getVersion());
+        change.setName(user.getName());
+        change.setEmail(user.getEmail());
+        change.setOrigin(instanceId);
+        change.setChangedAt(Instant.now());
+        return changeRepository.save(change);
+    }
+    
+    /**
+     * Logs one change per user in the current shard transaction with multi-row inserts
+     * @param users user states after the change
+     * @param type kind of change
+     * @param batchSize rows per INSERT statement
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void appendAll(List<User> users, UserChange.Type type, int batchSize) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Change log rows must be written in the transaction of the change");
+        }
+        Timestamp changedAt = Timestamp.from(Instant.now());
+        MultiRowInsert.insert(jdbcTemplate, "user_changes", COLUMNS, users, batchSize, user -> new Object[]{
+                user.getId(), type.name(), user.getVersion() == null ? 0L : user.getVersion(),
+                user.getName(), user.getEmail(), instanceId, changedAt});
+    }
+}
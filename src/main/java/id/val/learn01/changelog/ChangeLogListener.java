@@ -0,0 +1,25 @@
+package id.val.learn01.changelog;
+
+import id.val.learn01.model.UserChange;
+
+import java.util.List;
+
+/**
+ * Receives committed user changes from ChangeLogPoller.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Contract:
+ *    - Called on the poller thread with the new changes of one shard, in
+ *      change id order, including changes made by this instance
+ *    - Must be quick; a failing listener is logged and does not stop the
+ *      other listeners or the watermark
+ */
+public interface ChangeLogListener {
+    
+    /**
+     * Handles a batch of changes
+     * @param shard shard the changes were read from
+     * @param changes new changes, ascending by id
+     */
+    void onChanges(int shard, List<UserChange> changes);
+}
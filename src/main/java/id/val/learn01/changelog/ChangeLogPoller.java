@@ -0,0 +1,233 @@
+package id.val.learn01.changelog;
+
+import id.val.learn01.config.ChangeLogProperties;
+import id.val.learn01.model.UserChange;
+import id.val.learn01.repository.UserChangeRepository;
+import id.val.learn01.sharding.ShardTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tails the user change log of every shard and hands new changes to the listeners.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Polling:
+ *    - Every app.change-log.poll-interval, one indexed range query per
+ *      shard (id > watermark, batch-size rows), shards in parallel
+ *    - A full batch is followed by another round right away, so a burst
+ *      is drained without waiting for the next interval
+ *    - Read-only, so with read/write splitting a lagging replica only
+ *      delays changes by at most its lag limit
+ * 
+ * 2. High Watermark:
+ *    - Per shard, the highest change id delivered so far; starts at the
+ *      end of the log when the application starts
+ *    - Auto-increment ids are assigned at insert but become visible at
+ *      commit, so a lower id can appear after a higher one; delivery stops
+ *      at the first gap and waits up to gap-timeout for it to fill before
+ *      treating it as a rolled-back insert
+ * 
+ * 3. Retention:
+ *    - Rows older than app.change-log.retention are deleted every
+ *      prune-interval; every instance prunes, the delete is idempotent
+ * 
+ * 4. Metrics:
+ *    - changelog.changes{type}: changes delivered to the listeners
+ *    - changelog.lag: time from the change until it was delivered here,
+ *      i.e. the cross-instance staleness
+ */
+@Component
+public class ChangeLogPoller implements SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLogPoller.class);
+    
+    /** Starts before the cache snapshot restore, so no change between the two is missed */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 8192;
+    private static final int MAX_ROUNDS = 20;
+    
+    private final UserChangeRepository changeRepository;
+    private final ShardTemplate shardTemplate;
+    private final ChangeLogProperties properties;
+    private final ObjectProvider<ChangeLogListener> listeners;
+    private final MeterRegistry meterRegistry;
+    private final Timer lagTimer;
+    private final Map<UserChange.Type, Counter> changeCounters = new ConcurrentHashMap<>();
+    private volatile ShardState[] shards;
+    private volatile boolean running;
+    
+    public ChangeLogPoller(UserChangeRepository changeRepository, ShardTemplate shardTemplate,
+                           ChangeLogProperties properties, ObjectProvider<ChangeLogListener> listeners,
+                           MeterRegistry meterRegistry) {
+        this.changeRepository = changeRepository;
+        this.shardTemplate = shardTemplate;
+        this.properties = properties;
+        this.listeners = listeners;
+        this.meterRegistry = meterRegistry;
+        this.lagTimer = Timer.builder("changelog.lag")
+                .description("Time from a user change until this instance applied it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void start() {
+        List<Long> maxIds = shardTemplate.scatter(true, shard -> changeRepository.findMaxId());
+        ShardState[] states = new ShardState[maxIds.size()];
+        for (int shard = 0; shard < states.length; shard++) {
+            Long maxId = maxIds.get(shard);
+            states[shard] = new ShardState(maxId == null ? ShardState.EMPTY : maxId);
+        }
+        shards = states;
+        running = true;
+        logger.info("Change log polling from watermarks {}", maxIds);
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+    
+    /**
+     * Reads and delivers new changes of all shards
+     */
+    @Scheduled(fixedDelayString = "#{@changeLogProperties.pollInterval.toMillis()}")
+    public void poll() {
+        if (!running) {
+            return;
+        }
+        ShardState[] states = shards;
+        int batchSize = properties.getBatchSize();
+        try {
+            for (int round = 0; round < MAX_ROUNDS; round++) {
+                List<List<UserChange>> perShard = shardTemplate.scatter(true,
+                        shard -> changeRepository.findByIdGreaterThanOrderByIdAsc(
+                                Math.max(states[shard].watermark, 0), Limit.of(batchSize)));
+                boolean more = false;
+                for (int shard = 0; shard < perShard.size(); shard++) {
+                    List<UserChange> changes = perShard.get(shard);
+                    int delivered = deliver(shard, states[shard], changes);
+                    more |= changes.size() == batchSize && delivered == changes.size();
+                }
+                if (!more) {
+                    return;
+                }
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Change log poll failed: {}", ex.getMessage());
+        }
+    }
+    
+    /**
+     * Deletes changes older than the retention
+     */
+    @Scheduled(fixedDelayString = "#{@changeLogProperties.pruneInterval.toMillis()}",
+            initialDelayString = "#{@changeLogProperties.pruneInterval.toMillis()}")
+    public void prune() {
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        try {
+            List<Integer> deleted = shardTemplate.scatter(false, shard -> changeRepository.deleteByChangedAtBefore(cutoff));
+            logger.debug("Pruned change log rows before {}: {}", cutoff, deleted);
+        } catch (RuntimeException ex) {
+            logger.warn("Change log prune failed: {}", ex.getMessage());
+        }
+    }
+    
+    /**
+     * Current per-shard watermarks
+     * @return highest delivered change id per shard, 0 if none yet
+     */
+    public List<Long> getWatermarks() {
+        List<Long> watermarks = new ArrayList<>();
+        for (ShardState state : shards) {
+            watermarks.add(Math.max(state.watermark, 0));
+        }
+        return watermarks;
+    }
+    
+    /**
+     * Delivers the contiguous prefix of the changes and advances the watermark
+     * @return number of delivered changes
+     */
+    private int deliver(int shard, ShardState state, List<UserChange> changes) {
+        List<UserChange> ready = new ArrayList<>(changes.size());
+        long watermark = state.watermark;
+        for (UserChange change : changes) {
+            if (watermark != ShardState.EMPTY && change.getId() != watermark + 1) {
+                long now = System.nanoTime();
+                if (state.gapSinceNanos == 0) {
+                    state.gapSinceNanos = now;
+                }
+                if (now - state.gapSinceNanos < properties.getGapTimeout().toNanos()) {
+                    break;
+                }
+                logger.debug("Change ids {}..{} on shard {} never committed, skipping them",
+                        watermark + 1, change.getId() - 1, shard);
+            }
+            state.gapSinceNanos = 0;
+            watermark = change.getId();
+            ready.add(change);
+        }
+        if (ready.isEmpty()) {
+            return 0;
+        }
+        state.watermark = watermark;
+        
+        Instant now = Instant.now();
+        for (UserChange change : ready) {
+            lagTimer.record(Duration.between(change.getChangedAt(), now).toNanos(), TimeUnit.NANOSECONDS);
+            changeCounters.computeIfAbsent(change.getType(), type -> Counter.builder("changelog.changes")
+                    .description("User changes read from the change log")
+                    .tag("type", type.name())
+                    .register(meterRegistry)).increment();
+        }
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onChanges(shard, ready);
+            } catch (RuntimeException ex) {
+                logger.warn("Change log listener {} failed", listener.getClass().getSimpleName(), ex);
+            }
+        });
+        return ready.size();
+    }
+    
+    /**
+     * Watermark and gap state of one shard; only touched by the poller thread
+     */
+    private static final class ShardState {
+        /** The log was empty at startup, so the first row has no predecessor to wait for */
+        private static final long EMPTY = -1;
+        
+        private volatile long watermark;
+        private long gapSinceNanos;
+        
+        private ShardState(long watermark) {
+            this.watermark = watermark;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package id.val.learn01.changelog;
+
+import java.util.List;
+
+/**
+ * Result of a change feed pull.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Fields:
+ *    - changes: changes after the requested cursor, oldest first
+ *    - cursor: pass as ?since= for the next pull; equal to the request
+ *      cursor when nothing new happened
+ */
+public record ChangePage(List<ChangeEvent> changes, String cursor) {
+}
@@ -1,11 +1,29 @@
 package id.val.learn01.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import id.val.learn01.cache.GenerationalCaffeineCache;
+import id.val.learn01.tracing.Tracer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Configuration class for caching implementation.
  * 
@@ -25,11 +43,24 @@ import org.springframework.context.annotation.Configuration;
  * 3. Cache Configuration:
  *    - users: Cache for user list
  *    - userById: Cache for individual users
+ *    - userSearch: ids of search result pages, keyed by generation
+ *      (UserSearchCache)
+ *    - Hibernate second-level cache regions (JCache on Caffeine), bounded
+ *      by app.cache.entity.*:
+ *      * user: User entities by id, also used by findById()
+ *      * userByEmail: email to id resolution of the User natural id
+ *    - The regions are created here and handed to Hibernate as a
+ *      CacheManager instance; a missing region fails startup
  * 
  * 4. Features:
- *    - Concurrent cache support
+ *    - Caffeine caches bounded by spring.cache.caffeine.spec
  *    - Multiple cache regions
  *    - Automatic cache management
+ *    - Statistics recording (recordStats) for hit/miss/eviction/load metrics
+ *    - cache.load.duration for @Cacheable(sync = true) loads, which the
+ *      standard Caffeine binder only exposes for LoadingCache
+ *    - GenerationalCaffeineCache counts invalidations, so background
+ *      cache writers can detect a concurrent eviction
  * 
  * 5. Best Practices:
  *    - Clear cache naming
@@ -41,10 +72,75 @@ import org.springframework.context.annotation.Configuration;
 @EnableCaching
 public class CacheConfig {
     
+    /** Second-level cache regions named in the @Cache annotations of the entities */
+    private static final List<String> HIBERNATE_REGIONS = List.of("user", "userByEmail");
+    
+    @Bean
+    public CacheManager cacheManager(@Value("${spring.cache.caffeine.spec}") String cacheSpecification,
+                                     Tracer tracer) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                return new GenerationalCaffeineCache(name, cache, isAllowNullValues(), tracer);
+            }
+        };
+        cacheManager.setCacheSpecification(cacheSpecification);
+        cacheManager.setCacheNames(java.util.Arrays.asList("users", "userById", "userSearch"));
+        return cacheManager;
+    }
+    
     @Bean
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(java.util.Arrays.asList("users", "userById"));
+    public javax.cache.CacheManager hibernateCacheManager(
+            @Value("${app.cache.entity.maximum-size}") long maximumSize,
+            @Value("${app.cache.entity.time-to-live}") Duration timeToLive) {
+        CaffeineCachingProvider provider = new CaffeineCachingProvider();
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(
+                provider.getDefaultURI(), CacheConfig.class.getClassLoader());
+        for (String region : HIBERNATE_REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+            // Hibernate caches disassembled state, copying it again on every read is wasted work
+            configuration.setStoreByValue(false);
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        }
         return cacheManager;
     }
+    
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(javax.cache.CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+    
+    @Bean
+    public MeterBinder hibernateCacheMetrics(javax.cache.CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String region : HIBERNATE_REGIONS) {
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(region),
+                        Tags.of("cache.manager", "hibernate", "name", region));
+            }
+        };
+    }
+    
+    @Bean
+    public MeterBinder cacheLoadMetrics(CacheManager cacheManager) {
+        return registry -> {
+            for (String name : cacheManager.getCacheNames()) {
+                Cache<?, ?> cache = (Cache<?, ?>) cacheManager.getCache(name).getNativeCache();
+                FunctionTimer.builder("cache.load.duration", cache,
+                                c -> c.stats().loadCount(), c -> c.stats().totalLoadTime(), TimeUnit.NANOSECONDS)
+                        .description("Time spent loading values into the cache")
+                        .tag("cache", name)
+                        .register(registry);
+                FunctionCounter.builder("cache.load.failures", cache, c -> c.stats().loadFailureCount())
+                        .description("Loads that threw an exception, e.g. ResourceNotFoundException")
+                        .tag("cache", name)
+                        .register(registry);
+            }
+        };
+    }
 } 
\ No newline at end of file
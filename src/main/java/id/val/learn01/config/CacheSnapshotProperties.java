@@ -0,0 +1,52 @@
+package id.val.learn01.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Konfigurasi untuk snapshot cache user.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Lokasi file snapshot dan interval penulisan (app.cache.snapshot.*)
+ *    - Jumlah entry terpanas yang disimpan dan ukuran batch validasi
+ *    - Cara memuat saat startup: sebelum traffic (block-startup) atau di
+ *      background sambil traffic diterima
+ *    - Jendela pengukuran hit ratio setelah startup
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache.snapshot")
+public class CacheSnapshotProperties {
+    
+    /** Mengaktifkan snapshot saat shutdown, periodik, dan restore saat startup */
+    private boolean enabled = false;
+    
+    /** File snapshot (lokal per instance) */
+    private Path path = Path.of("cache-snapshot", "users.snap");
+    
+    /** Interval snapshot periodik */
+    private Duration interval = Duration.ofMinutes(5);
+    
+    /** Jumlah maksimum entry userById terpanas yang disimpan */
+    private int maxEntries = 10_000;
+    
+    /** Ikut menyimpan cache "users" (daftar semua user) */
+    private boolean includeUserList = true;
+    
+    /** Snapshot yang lebih tua dari ini diabaikan */
+    private Duration maxAge = Duration.ofHours(24);
+    
+    /** Jumlah id per query validasi versi */
+    private int validateBatchSize = 500;
+    
+    /** Muat snapshot sebelum web server menerima traffic */
+    private boolean blockStartup = false;
+    
+    /** Lama jendela pengukuran warm hit ratio setelah startup */
+    private Duration warmupWindow = Duration.ofMinutes(1);
+}
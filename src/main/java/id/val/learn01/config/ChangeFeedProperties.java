@@ -0,0 +1,41 @@
+package id.val.learn01.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Konfigurasi untuk change feed user (SSE dan pull).
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Batas subscriber SSE dan antrean per subscriber (app.change-feed.*)
+ *    - Jumlah thread fan-out bersama untuk semua koneksi
+ *    - Interval heartbeat dan timeout koneksi SSE
+ *    - Ukuran halaman untuk pull dan backfill
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.change-feed")
+public class ChangeFeedProperties {
+    
+    /** Jumlah maksimum koneksi SSE per instance */
+    private int maxSubscribers = 10_000;
+    
+    /** Event yang belum terkirim per subscriber; lebih dari ini koneksi ditutup */
+    private int maxPending = 1000;
+    
+    /** Thread pengirim event, dipakai bersama oleh semua subscriber */
+    private int fanOutThreads = 2;
+    
+    /** Interval komentar keep-alive ke koneksi yang diam */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+    
+    /** Umur maksimum koneksi SSE; client menyambung lagi dengan Last-Event-ID */
+    private Duration emitterTimeout = Duration.ofMinutes(30);
+    
+    /** Jumlah maksimum perubahan per pull dan per halaman backfill */
+    private int pageSize = 500;
+}
@@ -0,0 +1,37 @@
+package id.val.learn01.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Konfigurasi untuk change log user.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Interval dan ukuran batch polling tabel user_changes (app.change-log.*)
+ *    - Lama menunggu celah id (transaksi yang belum commit) sebelum dilewati
+ *    - Masa simpan baris change log
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.change-log")
+public class ChangeLogProperties {
+    
+    /** Interval polling per instance; batas atas staleness cache antar instance */
+    private Duration pollInterval = Duration.ofSeconds(1);
+    
+    /** Jumlah baris per query polling per shard */
+    private int batchSize = 500;
+    
+    /** Celah id yang lebih lama dari ini dianggap transaksi rollback dan dilewati */
+    private Duration gapTimeout = Duration.ofSeconds(5);
+    
+    /** Baris yang lebih tua dari ini dihapus */
+    private Duration retention = Duration.ofHours(24);
+    
+    /** Interval penghapusan baris lama */
+    private Duration pruneInterval = Duration.ofMinutes(10);
+}
@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 /**
  * Konfigurasi untuk mengelola environment variables.
@@ -19,6 +20,10 @@ import org.springframework.context.annotation.Configuration;
  *    - Kredensial tidak disimpan di kode
  *    - Mudah dikonfigurasi untuk environment berbeda
  *    - Aman untuk version control
+ * 
+ * 3. Startup:
+ *    - Bean Dotenv bersifat lazy: file .env baru dibaca (dan dicatat di log)
+ *      saat bean pertama kali dipakai, tidak memperlambat startup
  */
 @Configuration
 public class EnvironmentConfig {
@@ -27,6 +32,7 @@ public class EnvironmentConfig {
     private static Dotenv dotenv;
     
     @Bean
+    @Lazy
     public Dotenv dotenv() {
         if (dotenv == null) {
             dotenv = Dotenv.configure()
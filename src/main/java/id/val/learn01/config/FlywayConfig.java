@@ -0,0 +1,45 @@
+package id.val.learn01.config;
+
+import id.val.learn01.sharding.ShardRoutingDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Konfigurasi untuk migrasi skema dengan Flyway.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Skrip versi ada di db/migration (V1 = tabel users sebelum seri
+ *      perubahan ini, V2 dst. = kolom dan tabel tambahan)
+ *    - Aktif di profile prod (spring.flyway.enabled=true); profile default
+ *      tetap memakai ddl-auto=update
+ *    - Dengan sharding, migrasi dijalankan di setiap shard dengan
+ *      konfigurasi spring.flyway.* yang sama, tidak hanya di shard 0
+ * 
+ * 2. Training Run:
+ *    - Training run CDS (profile fast-startup) memakai profile prod dan
+ *      sudah membutuhkan database (lease node id), sehingga migrasi juga
+ *      dijalankan di sana dan skema database build selalu terbaru
+ */
+@Configuration
+public class FlywayConfig {
+    
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource) {
+        return flyway -> {
+            ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+            if (shards == null) {
+                flyway.migrate();
+                return;
+            }
+            for (DataSource shard : shards.getShards()) {
+                Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shard).load().migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package id.val.learn01.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Konfigurasi untuk bulk import user dari file CSV/NDJSON.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Direktori file import; file di luar direktori ini ditolak (app.import.*)
+ *    - Jumlah thread parse/validasi/insert dan ukuran chunk file
+ *    - Jumlah baris per statement INSERT multi-row
+ *    - Berapa reject yang ikut ditampilkan di laporan (semua tetap ditulis ke file)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.import")
+public class ImportProperties {
+    
+    /** Direktori file input, file reject juga ditulis di sini */
+    private Path directory = Path.of("imports");
+    
+    /** Thread yang memproses chunk secara paralel */
+    private int threads = Runtime.getRuntime().availableProcessors();
+    
+    /** Ukuran chunk file yang diproses satu thread */
+    private DataSize chunkSize = DataSize.ofMegabytes(4);
+    
+    /**
+     * Jumlah baris per statement INSERT multi-row; satu batch = satu transaksi
+     * dan satu checkpoint, supaya transaksi selesai jauh sebelum app.change-log.gap-timeout
+     */
+    private int insertBatchSize = 500;
+    
+    /** Jumlah reject pertama yang ditampilkan di laporan job */
+    private int reportedRejects = 20;
+}
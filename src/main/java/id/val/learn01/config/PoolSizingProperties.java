@@ -0,0 +1,49 @@
+package id.val.learn01.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Konfigurasi untuk adaptive connection pool sizing.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Batas bawah dan atas ukuran pool (app.pool-sizing.*)
+ *    - Interval sampling dan besar langkah perubahan
+ *    - Headroom di atas target Little's law (L = lambda * W)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.pool-sizing")
+public class PoolSizingProperties {
+    
+    /** Mengaktifkan controller ukuran pool */
+    private boolean enabled = true;
+    
+    /** Ukuran pool minimum */
+    private int minSize = 5;
+    
+    /** Ukuran pool maksimum */
+    private int maxSize = 50;
+    
+    /** Interval sampling */
+    private Duration interval = Duration.ofSeconds(10);
+    
+    /** Faktor pengali target Little's law */
+    private double headroom = 1.25;
+    
+    /** Perubahan ukuran maksimum per keputusan */
+    private int maxStep = 4;
+    
+    /** Rata-rata waktu tunggu koneksi yang dianggap kekurangan koneksi */
+    private Duration waitThreshold = Duration.ofMillis(5);
+    
+    /** Jumlah sampel berturut-turut di bawah target sebelum pool dikecilkan */
+    private int shrinkAfterSamples = 3;
+    
+    /** Bobot sampel terbaru pada rata-rata bergerak (0.0 - 1.0) */
+    private double smoothing = 0.5;
+}
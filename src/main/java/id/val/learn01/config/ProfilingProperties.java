@@ -0,0 +1,56 @@
+package id.val.learn01.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Konfigurasi untuk profiling on-demand dengan JDK Flight Recorder.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Direktori file .jfr dan jumlah rekaman yang disimpan (app.profiling.*)
+ *    - Batas durasi dan ukuran satu rekaman
+ *    - Setelan event: periode sampling CPU, laju sampling alokasi, ambang
+ *      lock dan socket; nilai default menjaga overhead di bawah beberapa persen
+ *    - Jumlah baris teratas per bagian laporan
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.profiling")
+public class ProfilingProperties {
+    
+    /** Direktori file .jfr */
+    private Path directory = Path.of("profiles");
+    
+    /** Durasi rekaman jika tidak diminta */
+    private Duration defaultDuration = Duration.ofSeconds(30);
+    
+    /** Durasi maksimum satu rekaman */
+    private Duration maxDuration = Duration.ofMinutes(5);
+    
+    /** Ukuran maksimum data rekaman di disk */
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+    
+    /** Jumlah rekaman terakhir (laporan dan file) yang disimpan */
+    private int keep = 5;
+    
+    /** Periode sampling stack thread yang sedang berjalan (jdk.ExecutionSample) */
+    private Duration executionSamplePeriod = Duration.ofMillis(20);
+    
+    /** Jumlah sampel alokasi per detik (jdk.ObjectAllocationSample) */
+    private int allocationSamplesPerSecond = 150;
+    
+    /** Monitor dan park yang lebih singkat dari ini tidak direkam */
+    private Duration lockThreshold = Duration.ofMillis(10);
+    
+    /** Baca/tulis socket yang lebih singkat dari ini tidak direkam */
+    private Duration socketThreshold = Duration.ofMillis(10);
+    
+    /** Jumlah baris teratas per bagian laporan */
+    private int top = 20;
+}
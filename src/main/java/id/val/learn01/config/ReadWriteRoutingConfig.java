@@ -0,0 +1,82 @@
+package id.val.learn01.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import id.val.learn01.datasource.ReadWriteRoutingDataSource;
+import id.val.learn01.datasource.ReadYourWritesTracker;
+import id.val.learn01.datasource.ReplicaTarget;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Konfigurasi untuk read/write splitting.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Membuat pool primary dari spring.datasource.* seperti biasa
+ *    - Membuat satu pool per replica dengan setelan pool yang sama
+ *    - Bean "dataSource" menjadi LazyConnectionDataSourceProxy di atas
+ *      ReadWriteRoutingDataSource, sehingga koneksi baru diambil setelah
+ *      status readOnly transaksi diketahui
+ *    - Hanya aktif jika app.datasource.routing.enabled=true
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+    
+    /** Batas jumlah client yang diingat untuk read-your-writes */
+    private static final long MAX_TRACKED_CLIENTS = 100_000;
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+    
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                 ReadWriteRoutingProperties properties,
+                                                                 MeterRegistry meterRegistry) {
+        List<ReplicaTarget> replicas = new ArrayList<>();
+        for (ReadWriteRoutingProperties.Replica replica : properties.getReplicas()) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setPoolName("replica-" + replica.getName());
+            config.setJdbcUrl(replica.getUrl());
+            config.setUsername(replica.getUsername() != null ? replica.getUsername() : primaryDataSource.getUsername());
+            config.setPassword(replica.getPassword() != null ? replica.getPassword() : primaryDataSource.getPassword());
+            config.setReadOnly(true);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReplicaTarget(replica.getName(), new HikariDataSource(config)));
+        }
+        
+        // Jendela read-your-writes tidak boleh lebih pendek dari lag yang masih ditoleransi
+        ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(
+                properties.getReadYourWritesWindow().compareTo(properties.getMaxLag()) >= 0
+                        ? properties.getReadYourWritesWindow() : properties.getMaxLag(),
+                MAX_TRACKED_CLIENTS);
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, properties.getStrategy(),
+                readYourWrites, meterRegistry);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+}
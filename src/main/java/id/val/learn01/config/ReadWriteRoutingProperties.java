@@ -0,0 +1,66 @@
+package id.val.learn01.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Konfigurasi untuk read/write splitting ke replica database.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Daftar replica (app.datasource.routing.replicas[n].*)
+ *    - Strategi pemilihan replica dan batas replication lag
+ *    - Jendela read-your-writes per client setelah write
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class ReadWriteRoutingProperties {
+    
+    /** Mengaktifkan routing transaksi readOnly ke replica */
+    private boolean enabled = false;
+    
+    /** Daftar replica */
+    private List<Replica> replicas = new ArrayList<>();
+    
+    /** ROUND_ROBIN atau LEAST_OUTSTANDING */
+    private Strategy strategy = Strategy.LEAST_OUTSTANDING;
+    
+    /** Replica dengan lag di atas batas ini tidak dipakai */
+    private Duration maxLag = Duration.ofSeconds(5);
+    
+    /** Interval pengecekan replication lag */
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+    
+    /** MYSQL (SHOW REPLICA STATUS) atau NONE (lag dianggap 0, untuk instance lokal) */
+    private LagProbe lagProbe = LagProbe.MYSQL;
+    
+    /** Lama client dibaca dari primary setelah write (minimal maxLag) */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    
+    /** Header yang mengidentifikasi client session */
+    private String clientIdHeader = "X-Client-Id";
+    
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+    }
+    
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_OUTSTANDING
+    }
+    
+    public enum LagProbe {
+        MYSQL,
+        NONE
+    }
+}
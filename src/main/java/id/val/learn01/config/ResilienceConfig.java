@@ -1,7 +1,11 @@
 package id.val.learn01.config;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,12 +19,17 @@ import java.time.Duration;
  *    - Mengkonfigurasi circuit breaker
  *    - Menangani kegagalan service
  *    - Meningkatkan reliability aplikasi
+ * 
+ * 2. Metrics:
+ *    - resilience4j.circuitbreaker.* (state, calls per outcome, failure rate)
+ *    - resilience4j.circuitbreaker.transitions{name, from, to}
+ *    - Berlaku juga untuk circuit breaker yang dibuat setelah startup
  */
 @Configuration
 public class ResilienceConfig {
     
     @Bean
-    public CircuitBreakerRegistry circuitBreakerRegistry() {
+    public CircuitBreakerRegistry circuitBreakerRegistry(MeterRegistry meterRegistry) {
         CircuitBreakerConfig config = CircuitBreakerConfig.custom()
                 .failureRateThreshold(50)
                 .waitDurationInOpenState(Duration.ofSeconds(60))
@@ -28,6 +37,25 @@ public class ResilienceConfig {
                 .slidingWindowSize(2)
                 .build();
         
-        return CircuitBreakerRegistry.of(config);
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        registry.getAllCircuitBreakers().forEach(circuitBreaker -> recordTransitions(circuitBreaker, meterRegistry));
+        registry.getEventPublisher().onEntryAdded(event -> recordTransitions(event.getAddedEntry(), meterRegistry));
+        return registry;
+    }
+    
+    /**
+     * Counts state transitions of a circuit breaker
+     * @param circuitBreaker circuit breaker to observe
+     * @param meterRegistry registry for the transition counters
+     */
+    private static void recordTransitions(CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> Counter.builder("resilience4j.circuitbreaker.transitions")
+                .description("Circuit breaker state transitions")
+                .tag("name", event.getCircuitBreakerName())
+                .tag("from", event.getStateTransition().getFromState().name())
+                .tag("to", event.getStateTransition().getToState().name())
+                .register(meterRegistry)
+                .increment());
     }
-} 
\ No newline at end of file
+}
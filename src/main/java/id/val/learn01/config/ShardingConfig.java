@@ -0,0 +1,112 @@
+package id.val.learn01.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import id.val.learn01.sharding.ShardRoutingDataSource;
+import id.val.learn01.sharding.ShardSchemaInitializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Konfigurasi untuk sharding tabel users ke beberapa database.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Shard 0 dibuat dari spring.datasource.* seperti biasa
+ *    - Satu pool per shard tambahan dengan setelan pool yang sama
+ *    - Bean "dataSource" menjadi LazyConnectionDataSourceProxy di atas
+ *      ShardRoutingDataSource, sehingga koneksi diambil setelah shard dipilih
+ *    - Skema Hibernate juga diterapkan ke shard tambahan
+ *    - Hanya aktif jika app.sharding.enabled=true (tidak bisa digabung
+ *      dengan app.datasource.routing)
+ * 
+ * 2. Validasi:
+ *    - Startup langsung gagal dengan pesan yang jelas jika
+ *      app.datasource.routing.enabled=true juga; tanpa pengecekan ini
+ *      kedua konfigurasi membuat bean "dataSource" @Primary dan startup
+ *      gagal dengan error bean "dataSource" ganda yang tidak jelas
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+@Conditional(ShardingConfig.RoutingDisabled.class)
+public class ShardingConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource shardZeroDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("shard-0");
+        return dataSource;
+    }
+    
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource shardZeroDataSource,
+                                                         ShardingProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(shardZeroDataSource);
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            HikariConfig config = new HikariConfig();
+            shardZeroDataSource.copyStateTo(config);
+            config.setPoolName("shard-" + shards.size());
+            config.setJdbcUrl(shard.getUrl());
+            config.setUsername(shard.getUsername() != null ? shard.getUsername() : shardZeroDataSource.getUsername());
+            config.setPassword(shard.getPassword() != null ? shard.getPassword() : shardZeroDataSource.getPassword());
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.add(new HikariDataSource(config));
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+    
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(ShardingProperties properties) {
+        return new ShardSchemaInitializer(1 + properties.getShards().size());
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaIntegrator(ShardSchemaInitializer shardSchemaInitializer) {
+        return hibernateProperties -> hibernateProperties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(shardSchemaInitializer));
+    }
+    
+    /**
+     * Dievaluasi saat kelas konfigurasi dipindai (setelah app.sharding.enabled
+     * cocok), sebelum bean "dataSource" didaftarkan
+     */
+    static class RoutingDisabled implements Condition {
+        
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            if (context.getEnvironment().getProperty("app.datasource.routing.enabled", Boolean.class, false)) {
+                throw new IllegalStateException("app.sharding.enabled and app.datasource.routing.enabled cannot both "
+                        + "be true: read/write splitting is not supported for sharded databases yet, disable one of them");
+            }
+            return true;
+        }
+    }
+}
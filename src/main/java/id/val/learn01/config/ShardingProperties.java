@@ -0,0 +1,57 @@
+package id.val.learn01.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Konfigurasi untuk sharding tabel users.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Shard 0 adalah spring.datasource.*, shard berikutnya dari
+ *      app.sharding.shards[n].*
+ *    - node-id membedakan instance aplikasi di dalam id yang dibuat;
+ *      di-lease di tabel node_leases agar tidak dipakai dua instance
+ *    - Batas window pagination dan ukuran batch export lintas shard
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+    
+    /** Mengaktifkan shard tambahan; jika false hanya ada satu shard */
+    private boolean enabled = false;
+    
+    /** Id instance aplikasi (0-31); kosong = ambil node id bebas dari node_leases */
+    private Integer nodeId;
+    
+    /** Lama lease node id tanpa diperpanjang */
+    private Duration nodeLeaseTtl = Duration.ofSeconds(60);
+    
+    /** Interval perpanjangan lease node id, harus lebih pendek dari TTL */
+    private Duration nodeLeaseRenewInterval = Duration.ofSeconds(15);
+    
+    /** Shard tambahan, berurutan mulai dari shard 1 */
+    private List<Shard> shards = new ArrayList<>();
+    
+    /** Jumlah thread scatter-gather (0 = satu per shard) */
+    private int scatterThreads = 0;
+    
+    /** Batas (page + 1) * size untuk search, karena tiap shard membaca sebanyak itu */
+    private int maxResultWindow = 10_000;
+    
+    /** Jumlah baris per query per shard saat export */
+    private int exportBatchSize = 1_000;
+    
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
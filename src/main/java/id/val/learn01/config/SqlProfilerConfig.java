@@ -0,0 +1,50 @@
+package id.val.learn01.config;
+
+import id.val.learn01.monitoring.SqlProfiler;
+import id.val.learn01.tracing.TracingJdbcListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Konfigurasi untuk profiling statement database.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Membungkus DataSource utama dengan datasource-proxy
+ *    - Meneruskan setiap statement dan ResultSet.next() ke SqlProfiler
+ *    - Meneruskan pengambilan koneksi dan statement ke TracingJdbcListener
+ *      untuk span JDBC pada trace request
+ *    - Dapat dimatikan dengan app.sql-profiler.enabled=false
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql-profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlProfilerConfig {
+    
+    @Bean
+    public static BeanPostProcessor sqlProfilingDataSourcePostProcessor(ObjectProvider<SqlProfiler> sqlProfiler,
+                                                                        ObjectProvider<TracingJdbcListener> tracingListener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    SqlProfiler profiler = sqlProfiler.getObject();
+                    TracingJdbcListener tracing = tracingListener.getObject();
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(profiler)
+                            .methodListener(profiler)
+                            .listener(tracing)
+                            .methodListener(tracing)
+                            .proxyResultSet()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
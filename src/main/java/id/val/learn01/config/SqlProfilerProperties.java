@@ -0,0 +1,43 @@
+package id.val.learn01.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Konfigurasi untuk SQL profiler.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Mengaktifkan profiling statement JDBC (app.sql-profiler.*)
+ *    - Mengatur ambang slow query dan sampling log
+ *    - Mengatur deteksi statement berulang (N+1) per request dan batas log-nya
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.sql-profiler")
+public class SqlProfilerProperties {
+    
+    /** Membungkus DataSource dengan proxy profiling */
+    private boolean enabled = true;
+    
+    /** Statement yang lebih lambat dari ini masuk slow-query log */
+    private Duration slowQueryThreshold = Duration.ofMillis(200);
+    
+    /** Fraksi slow query yang di-log (0.0 - 1.0) */
+    private double slowQuerySampleRate = 1.0;
+    
+    /** Batas jumlah baris slow-query log per detik */
+    private int slowQueryLogPerSecond = 5;
+    
+    /** Jumlah eksekusi statement identik dalam satu request yang dianggap N+1 */
+    private int repeatedStatementThreshold = 5;
+    
+    /** Batas jumlah baris log statement berulang (N+1) per detik */
+    private int repeatedStatementLogPerSecond = 5;
+    
+    /** Batas jumlah statement berbeda yang dilacak */
+    private int maxStatements = 1000;
+}
@@ -0,0 +1,42 @@
+package id.val.learn01.config;
+
+import id.val.learn01.controller.UserController;
+import id.val.learn01.datasource.AdaptivePoolSizer;
+import id.val.learn01.datasource.ReplicaLagMonitor;
+import id.val.learn01.sharding.ShardSchemaInitializer;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Konfigurasi untuk startup cepat dengan lazy initialization.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Profil prod menyalakan spring.main.lazy-initialization, sehingga bean
+ *      yang tidak kritis (actuator endpoint, exception handler, dsb.) baru
+ *      dibuat saat pertama kali dipakai
+ *    - Bean di bawah tetap eager: DataSource, JPA, cache, scheduled task,
+ *      dan jalur request UserController (beserta service, repository dan
+ *      proxy RateLimitAspect-nya), agar request pertama tidak menanggung
+ *      biaya pembuatan bean
+ */
+@Configuration
+public class StartupConfig {
+    
+    @Bean
+    public static LazyInitializationExcludeFilter criticalBeansExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                DataSource.class,
+                EntityManagerFactory.class,
+                CacheManager.class,
+                UserController.class,
+                AdaptivePoolSizer.class,
+                ReplicaLagMonitor.class,
+                ShardSchemaInitializer.class);
+    }
+}
@@ -0,0 +1,39 @@
+package id.val.learn01.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Konfigurasi untuk tracing request dengan tail-based sampling.
+ * 
+ * PENJELASAN:
+ * 1. Fungsi:
+ *    - Mengaktifkan span per request (app.tracing.*): controller, rate
+ *      limiter, cache, repository, transaksi shard dan JDBC
+ *    - Keputusan simpan/buang diambil setelah request selesai: trace yang
+ *      lambat atau error selalu disimpan, trace cepat hanya sebagian kecil
+ *    - Trace yang disimpan masuk ring buffer di memori (/actuator/traces)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.tracing")
+public class TracingProperties {
+    
+    /** Merekam span untuk setiap request */
+    private boolean enabled = true;
+    
+    /** Trace yang lebih lama dari ini selalu disimpan */
+    private Duration slowThreshold = Duration.ofMillis(200);
+    
+    /** Fraksi trace cepat tanpa error yang tetap disimpan (0.0 - 1.0) */
+    private double sampleRate = 0.01;
+    
+    /** Jumlah trace terakhir yang disimpan di ring buffer */
+    private int bufferSize = 1000;
+    
+    /** Batas jumlah span per trace; span berikutnya hanya dihitung */
+    private int maxSpans = 128;
+}
@@ -1,6 +1,11 @@
 package id.val.learn01.config;
 
+import id.val.learn01.datasource.ClientSessionInterceptor;
+import id.val.learn01.monitoring.SqlProfilingInterceptor;
+import id.val.learn01.tracing.TracingInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -12,9 +17,22 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  *    - Menangani request untuk resource static
  *    - Mengkonfigurasi handler untuk request khusus
  *    - Menangani request dari Chrome DevTools
+ *    - Mendaftarkan interceptor tracing lebih dulu, sehingga interceptor
+ *      lain dan handler berjalan di dalam trace request
+ *    - Mendaftarkan interceptor profiling SQL per request
+ *    - Mendaftarkan interceptor client session untuk read/write splitting
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private TracingInterceptor tracingInterceptor;
+    
+    @Autowired
+    private SqlProfilingInterceptor sqlProfilingInterceptor;
+    
+    @Autowired(required = false)
+    private ClientSessionInterceptor clientSessionInterceptor;
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
@@ -22,4 +40,13 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/.well-known/appspecific/com.chrome.devtools.json")
                 .addResourceLocations("classpath:/static/.well-known/appspecific/");
     }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(tracingInterceptor);
+        registry.addInterceptor(sqlProfilingInterceptor);
+        if (clientSessionInterceptor != null) {
+            registry.addInterceptor(clientSessionInterceptor);
+        }
+    }
 } 
\ No newline at end of file
@@ -1,11 +1,21 @@
 package id.val.learn01.controller;
 
+import id.val.learn01.changelog.ChangePage;
 import id.val.learn01.model.User;
+import id.val.learn01.query.UserQuery;
 import id.val.learn01.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -32,6 +42,11 @@ import java.util.List;
  * 3. Class Methods:
  *    - getAllUsers(): GET /api/users
  *    - getUserById(): GET /api/users/{id}
+ *    - getUserByEmail(): GET /api/users/by-email/{email}
+ *    - searchUsers(): GET /api/users/search?name=&email=&page=&size=&sortBy=&sortDirection=
+ *    - exportUsers(): GET /api/users/export (CSV stream)
+ *    - getChanges(): GET /api/users/changes?since=&limit=
+ *    - streamChanges(): GET /api/users/changes/stream (SSE, resumes with since or Last-Event-ID)
  *    - createUser(): POST /api/users
  *    - updateUser(): PUT /api/users/{id}
  *    - deleteUser(): DELETE /api/users/{id}
@@ -74,6 +89,64 @@ public class UserController {
         return ResponseEntity.ok(userService.getUserById(id));
     }
     
+    /**
+     * Retrieves user by email
+     * @param email email of the user to retrieve
+     * @return ResponseEntity containing user data
+     */
+    @GetMapping("/by-email/{email}")
+    public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
+        return ResponseEntity.ok(userService.getUserByEmail(email));
+    }
+    
+    /**
+     * Searches users by id, name and email fragments across all shards
+     * @param query filter, sort and paging parameters from the query string
+     * @return ResponseEntity containing the requested page
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Page<User>> searchUsers(UserQuery query) {
+        return ResponseEntity.ok(userService.searchUsers(query));
+    }
+    
+    /**
+     * Exports all users as CSV, streamed without loading them all in memory
+     * @return ResponseEntity streaming the CSV body
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = outputStream -> userService.exportUsers(
+                new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users.csv")
+                .body(body);
+    }
+    
+    /**
+     * Pages through user changes after a cursor; without since only the current cursor is returned
+     * @param since cursor from a previous page or change event
+     * @param limit maximum number of changes
+     * @return ResponseEntity containing the changes and the next cursor
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ChangePage> getChanges(@RequestParam(required = false) String since,
+                                                 @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(userService.getChanges(since, limit));
+    }
+    
+    /**
+     * Streams user changes as server-sent events
+     * @param since cursor to resume from
+     * @param lastEventId cursor sent by a reconnecting EventSource, used if since is absent
+     * @return SSE emitter
+     */
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) String since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return userService.streamChanges(since != null ? since : lastEventId);
+    }
+    
     /**
      * Creates a new user
      * @param user user data to create
@@ -0,0 +1,164 @@
+package id.val.learn01.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import id.val.learn01.config.PoolSizingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically resizes the Hikari pools from observed wait and service time.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Samples every pool behind the application DataSource
+ *    - Feeds the samples to a PoolSizeController per pool
+ *    - Applies the new maximum pool size through HikariConfigMXBean
+ * 
+ * 2. Inputs:
+ *    - hikaricp.connections.acquire timer: acquisition wait
+ *    - hikaricp.connections.usage timer: connection hold (service) time
+ *    - HikariPoolMXBean: active, idle and waiting counts
+ * 
+ * 3. Metrics:
+ *    - pool.sizing.max{pool}: current maximum pool size
+ *    - pool.sizing.target{pool}: last Little's law target
+ *    - pool.sizing.decisions{pool, direction}: grow/shrink/hold decisions
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.pool-sizing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdaptivePoolSizer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+    
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final PoolSizingProperties properties;
+    private final Map<String, PoolState> pools = new ConcurrentHashMap<>();
+    
+    public AdaptivePoolSizer(DataSource dataSource, MeterRegistry meterRegistry, PoolSizingProperties properties) {
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+    
+    /**
+     * Samples all pools and applies the sizing decisions
+     */
+    @Scheduled(fixedDelayString = "#{@poolSizingProperties.interval.toMillis()}",
+            initialDelayString = "#{@poolSizingProperties.interval.toMillis()}")
+    public void resize() {
+        for (HikariDataSource pool : HikariPools.discover(dataSource)) {
+            HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+            if (poolBean == null) {
+                continue;
+            }
+            PoolState state = pools.computeIfAbsent(pool.getPoolName(), name -> register(name, pool));
+            PoolSample sample = state.sample(poolBean);
+            if (sample == null) {
+                continue;
+            }
+            
+            PoolDecision decision = state.controller.decide(pool.getMaximumPoolSize(), sample);
+            state.target = decision.target();
+            state.decisions.computeIfAbsent(decision.direction(), direction -> Counter.builder("pool.sizing.decisions")
+                    .description("Pool sizing decisions")
+                    .tag("pool", pool.getPoolName())
+                    .tag("direction", direction)
+                    .register(meterRegistry)).increment();
+            
+            if (decision.changed()) {
+                pool.getHikariConfigMXBean().setMaximumPoolSize(decision.newSize());
+                if (pool.getMinimumIdle() > decision.newSize()) {
+                    pool.getHikariConfigMXBean().setMinimumIdle(decision.newSize());
+                }
+                logger.info("Pool {} resized {} -> {} ({}, {} acq/s, usage {} ms)",
+                        pool.getPoolName(), decision.previousSize(), decision.newSize(), decision.reason(),
+                        String.format("%.1f", sample.arrivalRate()), String.format("%.1f", sample.meanUsageMillis()));
+            }
+        }
+    }
+    
+    private PoolState register(String name, HikariDataSource pool) {
+        PoolState state = new PoolState(new PoolSizeController(properties), name);
+        Gauge.builder("pool.sizing.max", pool, HikariDataSource::getMaximumPoolSize)
+                .description("Maximum pool size chosen by the pool sizer")
+                .tag("pool", name)
+                .register(meterRegistry);
+        Gauge.builder("pool.sizing.target", state, s -> s.target)
+                .description("Little's law target size")
+                .tag("pool", name)
+                .register(meterRegistry);
+        return state;
+    }
+    
+    /**
+     * Per-pool controller and last timer readings
+     */
+    private final class PoolState {
+        private final PoolSizeController controller;
+        private final String name;
+        private final Map<String, Counter> decisions = new ConcurrentHashMap<>();
+        private volatile double target;
+        private long lastAcquireCount = -1;
+        private double lastAcquireNanos;
+        private long lastUsageCount;
+        private double lastUsageNanos;
+        private long lastSampleNanos;
+        
+        private PoolState(PoolSizeController controller, String name) {
+            this.controller = controller;
+            this.name = name;
+        }
+        
+        /**
+         * Takes the delta of the Hikari timers since the previous call
+         * @param poolBean runtime view of the pool
+         * @return sample, or null on the first call or if the timers are missing
+         */
+        private PoolSample sample(HikariPoolMXBean poolBean) {
+            Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", name).timer();
+            Timer usage = meterRegistry.find("hikaricp.connections.usage").tag("pool", name).timer();
+            if (acquire == null || usage == null) {
+                return null;
+            }
+            long now = System.nanoTime();
+            long acquireCount = acquire.count();
+            double acquireNanos = acquire.totalTime(TimeUnit.NANOSECONDS);
+            long usageCount = usage.count();
+            double usageNanos = usage.totalTime(TimeUnit.NANOSECONDS);
+            
+            PoolSample sample = null;
+            if (lastAcquireCount >= 0) {
+                long acquisitions = acquireCount - lastAcquireCount;
+                long releases = usageCount - lastUsageCount;
+                sample = new PoolSample(
+                        acquisitions,
+                        (now - lastSampleNanos) / 1e9,
+                        acquisitions == 0 ? 0 : (acquireNanos - lastAcquireNanos) / acquisitions / 1e6,
+                        releases == 0 ? 0 : (usageNanos - lastUsageNanos) / releases / 1e6,
+                        poolBean.getActiveConnections(),
+                        poolBean.getIdleConnections(),
+                        poolBean.getThreadsAwaitingConnection());
+            }
+            lastAcquireCount = acquireCount;
+            lastAcquireNanos = acquireNanos;
+            lastUsageCount = usageCount;
+            lastUsageNanos = usageNanos;
+            lastSampleNanos = now;
+            return sample;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package id.val.learn01.datasource;
+
+import id.val.learn01.config.ReadWriteRoutingProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Identifies the client session of each request for read-your-writes.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Client Id Resolution:
+ *    - The configured header (X-Client-Id by default)
+ *    - Otherwise an existing HTTP session id
+ *    - Otherwise the remote address
+ * 
+ * 2. Lifecycle:
+ *    - Stored in RoutingContext for the duration of the request
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class ClientSessionInterceptor implements HandlerInterceptor {
+    
+    @Autowired
+    private ReadWriteRoutingProperties properties;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String clientId = request.getHeader(properties.getClientIdHeader());
+        if (clientId == null || clientId.isBlank()) {
+            HttpSession session = request.getSession(false);
+            clientId = session != null ? session.getId() : request.getRemoteAddr();
+        }
+        RoutingContext.setClientId(clientId);
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RoutingContext.clear();
+    }
+}
@@ -0,0 +1,57 @@
+package id.val.learn01.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the Hikari pools behind a DataSource.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Unwraps proxies (datasource-proxy, LazyConnectionDataSourceProxy)
+ *    - Descends into routing DataSources, which hold one pool per target
+ * 
+ * 2. Usage:
+ *    - Lets pool-level components work the same with one pool or many
+ */
+public final class HikariPools {
+    
+    private HikariPools() {
+    }
+    
+    /**
+     * Lists all Hikari pools reachable from the given DataSource
+     * @param dataSource application DataSource, possibly wrapped
+     * @return distinct Hikari pools, empty if none are found
+     */
+    public static List<HikariDataSource> discover(DataSource dataSource) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        collect(dataSource, pools);
+        return pools;
+    }
+    
+    private static void collect(DataSource dataSource, List<HikariDataSource> pools) {
+        try {
+            if (dataSource.isWrapperFor(AbstractRoutingDataSource.class)) {
+                AbstractRoutingDataSource routing = dataSource.unwrap(AbstractRoutingDataSource.class);
+                for (DataSource target : routing.getResolvedDataSources().values()) {
+                    collect(target, pools);
+                }
+                return;
+            }
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+                if (!pools.contains(pool)) {
+                    pools.add(pool);
+                }
+            }
+        } catch (SQLException ex) {
+            // Not a wrapper we can see through; nothing to manage
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package id.val.learn01.datasource;
+
+/**
+ * Outcome of one pool sizing step.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Fields:
+ *    - previousSize / newSize: maximum pool size before and after
+ *    - target: Little's law target, lambda * W * headroom
+ *    - direction: grow, shrink or hold
+ *    - reason: short human readable explanation
+ */
+public record PoolDecision(
+        int previousSize,
+        int newSize,
+        double target,
+        String direction,
+        String reason) {
+    
+    public boolean changed() {
+        return previousSize != newSize;
+    }
+}
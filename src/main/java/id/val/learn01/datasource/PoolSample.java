@@ -0,0 +1,30 @@
+package id.val.learn01.datasource;
+
+/**
+ * One observation of a connection pool over a sampling interval.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Fields:
+ *    - acquisitions: connections handed out during the interval
+ *    - intervalSeconds: length of the interval
+ *    - meanWaitMillis: mean time callers waited for a connection
+ *    - meanUsageMillis: mean time a connection was held (service time)
+ *    - active / idle / waiting: pool state at the end of the interval
+ */
+public record PoolSample(
+        long acquisitions,
+        double intervalSeconds,
+        double meanWaitMillis,
+        double meanUsageMillis,
+        int active,
+        int idle,
+        int waiting) {
+    
+    /**
+     * Observed arrival rate
+     * @return acquisitions per second
+     */
+    public double arrivalRate() {
+        return intervalSeconds <= 0 ? 0 : acquisitions / intervalSeconds;
+    }
+}
@@ -0,0 +1,86 @@
+package id.val.learn01.datasource;
+
+import id.val.learn01.config.PoolSizingProperties;
+
+/**
+ * Sizing policy for one connection pool.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Turns pool samples into a new maximum pool size
+ *    - Has no dependency on Hikari, so it can be driven by synthetic samples
+ * 
+ * 2. Algorithm:
+ *    - Demand L = lambda * W (Little's law), lambda = acquisitions per second,
+ *      W = mean connection usage time, smoothed with an EWMA
+ *    - Target = ceil(L * headroom)
+ *    - Starved (callers waiting or mean wait above threshold): grow by maxStep,
+ *      because a saturated pool caps the observed lambda and hides demand
+ *    - Target above size: grow towards target, at most maxStep
+ *    - Target below size for shrinkAfterSamples samples: shrink, at most maxStep
+ *    - Always clamped to [minSize, maxSize]
+ * 
+ * 3. Thread Safety:
+ *    - Not thread-safe; one instance per pool, driven by one scheduler thread
+ */
+public class PoolSizeController {
+    
+    private final PoolSizingProperties properties;
+    private double smoothedDemand = -1;
+    private int belowTargetSamples;
+    
+    public PoolSizeController(PoolSizingProperties properties) {
+        this.properties = properties;
+    }
+    
+    /**
+     * Computes the next pool size
+     * @param currentSize current maximum pool size
+     * @param sample observation of the last interval
+     * @return decision with the new size
+     */
+    public PoolDecision decide(int currentSize, PoolSample sample) {
+        double demand = sample.arrivalRate() * sample.meanUsageMillis() / 1000.0;
+        double alpha = properties.getSmoothing();
+        smoothedDemand = smoothedDemand < 0 ? demand : alpha * demand + (1 - alpha) * smoothedDemand;
+        double target = smoothedDemand * properties.getHeadroom();
+        int desired = (int) Math.ceil(target);
+        int step = Math.max(properties.getMaxStep(), 1);
+        boolean starved = sample.waiting() > 0
+                || sample.meanWaitMillis() >= properties.getWaitThreshold().toNanos() / 1_000_000.0;
+        
+        int newSize;
+        String direction;
+        String reason;
+        if (starved && currentSize < properties.getMaxSize()) {
+            newSize = currentSize + step;
+            direction = "grow";
+            reason = String.format("starved: %d waiting, mean wait %.1f ms", sample.waiting(), sample.meanWaitMillis());
+            belowTargetSamples = 0;
+        } else if (desired > currentSize) {
+            newSize = currentSize + Math.min(step, desired - currentSize);
+            direction = "grow";
+            reason = String.format("demand %.1f above pool size", target);
+            belowTargetSamples = 0;
+        } else if (desired < currentSize && currentSize > properties.getMinSize() && !starved
+                && ++belowTargetSamples >= properties.getShrinkAfterSamples()) {
+            newSize = currentSize - Math.min(step, currentSize - desired);
+            direction = "shrink";
+            reason = String.format("demand %.1f below pool size for %d samples", target, belowTargetSamples);
+            belowTargetSamples = 0;
+        } else {
+            newSize = currentSize;
+            direction = "hold";
+            reason = String.format("demand %.1f", target);
+            if (desired >= currentSize) {
+                belowTargetSamples = 0;
+            }
+        }
+        
+        newSize = Math.max(properties.getMinSize(), Math.min(properties.getMaxSize(), newSize));
+        if (newSize == currentSize) {
+            direction = "hold";
+        }
+        return new PoolDecision(currentSize, newSize, target, direction, reason);
+    }
+}
@@ -0,0 +1,128 @@
+package id.val.learn01.datasource;
+
+import id.val.learn01.config.ReadWriteRoutingProperties.Strategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes read-only transactions to replicas and everything else to the primary.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Routing Rules (evaluated when a physical connection is needed):
+ *    - Not a read-only transaction: primary, and the client is recorded as a writer
+ *    - Read-only, but the client wrote recently: primary (read-your-writes)
+ *    - Read-only cache load shortly after an invalidation: primary
+ *      (RoutingContext.isPrimaryRequired(), set by CacheLoadRouting)
+ *    - Read-only: a healthy replica, chosen round-robin or by least outstanding
+ *      connections; primary if no replica is healthy
+ * 
+ * 2. Requirements:
+ *    - Must sit behind LazyConnectionDataSourceProxy, so the connection is
+ *      fetched after the transaction's read-only flag is known
+ * 
+ * 3. Metrics:
+ *    - datasource.routing{target, reason}: connections routed per target
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    
+    public static final String PRIMARY = "primary";
+    
+    private final List<ReplicaTarget> replicas;
+    private final Strategy strategy;
+    private final ReadYourWritesTracker readYourWrites;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routed = new ConcurrentHashMap<>();
+    
+    public ReadWriteRoutingDataSource(DataSource primary, List<ReplicaTarget> replicas, Strategy strategy,
+                                      ReadYourWritesTracker readYourWrites, MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        this.strategy = strategy;
+        this.readYourWrites = readYourWrites;
+        this.meterRegistry = meterRegistry;
+        
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (ReplicaTarget replica : this.replicas) {
+            targets.put(replica.getName(), replica.getDataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+    
+    public List<ReplicaTarget> getReplicas() {
+        return replicas;
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String clientId = RoutingContext.getClientId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (clientId != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.recordWrite(clientId);
+            }
+            return route(PRIMARY, "write");
+        }
+        if (clientId != null && readYourWrites.recentlyWrote(clientId)) {
+            return route(PRIMARY, "read-your-writes");
+        }
+        if (RoutingContext.isPrimaryRequired()) {
+            return route(PRIMARY, "cache-load");
+        }
+        ReplicaTarget replica = selectReplica();
+        return replica == null ? route(PRIMARY, "no-healthy-replica") : route(replica.getName(), "read");
+    }
+    
+    /**
+     * Picks a healthy replica
+     * @return chosen replica, or null if none is healthy
+     */
+    private ReplicaTarget selectReplica() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        ReplicaTarget best = null;
+        int bestOutstanding = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            ReplicaTarget candidate = replicas.get((start + i) % size);
+            if (!candidate.isHealthy()) {
+                continue;
+            }
+            if (strategy == Strategy.ROUND_ROBIN) {
+                return candidate;
+            }
+            int outstanding = candidate.outstanding();
+            if (outstanding < bestOutstanding) {
+                best = candidate;
+                bestOutstanding = outstanding;
+            }
+        }
+        return best;
+    }
+    
+    private String route(String target, String reason) {
+        routed.computeIfAbsent(target + '|' + reason, key -> Counter.builder("datasource.routing")
+                .description("Connections routed by ReadWriteRoutingDataSource")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry)).increment();
+        return target;
+    }
+    
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.getDataSource().close());
+    }
+}
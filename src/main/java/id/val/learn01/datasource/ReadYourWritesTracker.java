@@ -0,0 +1,39 @@
+package id.val.learn01.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Remembers which client sessions wrote recently.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - recordWrite() after a read-write transaction touches the primary
+ *    - recentlyWrote() keeps that client's reads on the primary until the
+ *      window has passed, so it sees its own createUser/updateUser
+ * 
+ * 2. Sizing:
+ *    - Entries expire after the window and the map is size bounded,
+ *      so memory stays flat with many clients
+ */
+public class ReadYourWritesTracker {
+    
+    private final Cache<String, Boolean> recentWriters;
+    
+    public ReadYourWritesTracker(Duration window, long maximumClients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumClients)
+                .build();
+    }
+    
+    public void recordWrite(String clientId) {
+        recentWriters.put(clientId, Boolean.TRUE);
+    }
+    
+    public boolean recentlyWrote(String clientId) {
+        return recentWriters.getIfPresent(clientId) != null;
+    }
+}
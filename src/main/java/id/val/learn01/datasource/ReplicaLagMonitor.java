@@ -0,0 +1,114 @@
+package id.val.learn01.datasource;
+
+import id.val.learn01.config.ReadWriteRoutingProperties;
+import id.val.learn01.config.ReadWriteRoutingProperties.LagProbe;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Measures replication lag and takes lagging replicas out of rotation.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Checks every replica each lag-check-interval
+ *    - Marks a replica unhealthy when lag exceeds max-lag, replication is
+ *      stopped, or the check fails; reads then fall back to other replicas
+ *      or the primary
+ * 
+ * 2. Lag Probes:
+ *    - MYSQL: Seconds_Behind_Source from SHOW REPLICA STATUS
+ *      (SHOW SLAVE STATUS on MySQL before 8.0.22)
+ *    - NONE: lag is taken as 0, for two independent local instances
+ * 
+ * 3. Metrics:
+ *    - datasource.replica.lag{replica}: last measured lag in seconds
+ *    - datasource.replica.healthy{replica}: 1 if serving reads
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final ReadWriteRoutingProperties properties;
+    
+    public ReplicaLagMonitor(ReadWriteRoutingDataSource routingDataSource, ReadWriteRoutingProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.properties = properties;
+        for (ReplicaTarget replica : routingDataSource.getReplicas()) {
+            Gauge.builder("datasource.replica.lag", replica, ReplicaTarget::getLagSeconds)
+                    .description("Replication lag in seconds")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .description("Whether the replica serves reads")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+    
+    /**
+     * Checks the lag of all replicas
+     */
+    @Scheduled(fixedDelayString = "#{@readWriteRoutingProperties.lagCheckInterval.toMillis()}")
+    public void checkLag() {
+        double maxLagSeconds = properties.getMaxLag().toMillis() / 1000.0;
+        for (ReplicaTarget replica : routingDataSource.getReplicas()) {
+            boolean wasHealthy = replica.isHealthy();
+            try {
+                Double lag = measureLag(replica);
+                replica.update(lag == null ? Double.NaN : lag, lag != null && lag <= maxLagSeconds);
+            } catch (SQLException ex) {
+                replica.update(Double.NaN, false);
+                logger.debug("Lag check failed for replica {}", replica.getName(), ex);
+            }
+            if (wasHealthy != replica.isHealthy()) {
+                logger.warn("Replica {} is now {} (lag {} s)", replica.getName(),
+                        replica.isHealthy() ? "serving reads" : "out of rotation", replica.getLagSeconds());
+            }
+        }
+    }
+    
+    /**
+     * Reads the replication lag of one replica
+     * @param replica replica to check
+     * @return lag in seconds, or null if replication is not running
+     * @throws SQLException if the replica cannot be queried
+     */
+    private Double measureLag(ReplicaTarget replica) throws SQLException {
+        try (Connection connection = replica.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            if (properties.getLagProbe() == LagProbe.NONE) {
+                statement.execute("SELECT 1");
+                return 0.0;
+            }
+            try (ResultSet resultSet = statement.executeQuery("SHOW REPLICA STATUS")) {
+                return readLag(resultSet, "Seconds_Behind_Source");
+            } catch (SQLException ex) {
+                try (ResultSet resultSet = statement.executeQuery("SHOW SLAVE STATUS")) {
+                    return readLag(resultSet, "Seconds_Behind_Master");
+                }
+            }
+        }
+    }
+    
+    private static Double readLag(ResultSet resultSet, String column) throws SQLException {
+        if (!resultSet.next()) {
+            return null;
+        }
+        long lag = resultSet.getLong(column);
+        return resultSet.wasNull() ? null : (double) lag;
+    }
+}
@@ -0,0 +1,47 @@
+package id.val.learn01.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Getter;
+
+/**
+ * A replica DataSource with its routing health.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Wraps the replica pool
+ *    - Tracks the last measured lag and whether reads may go there
+ *    - Reports outstanding (checked-out) connections for LEAST_OUTSTANDING
+ */
+@Getter
+public class ReplicaTarget {
+    
+    private final String name;
+    private final HikariDataSource dataSource;
+    private volatile boolean healthy = true;
+    private volatile double lagSeconds;
+    
+    public ReplicaTarget(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+    
+    /**
+     * Records the result of a lag check
+     * @param lagSeconds measured lag in seconds
+     * @param healthy whether the replica may serve reads
+     */
+    public void update(double lagSeconds, boolean healthy) {
+        this.lagSeconds = lagSeconds;
+        this.healthy = healthy;
+    }
+    
+    /**
+     * Connections currently checked out of the replica pool
+     * @return active connections, 0 before the pool has started
+     */
+    public int outstanding() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+}
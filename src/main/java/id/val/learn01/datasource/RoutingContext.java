@@ -0,0 +1,48 @@
+package id.val.learn01.datasource;
+
+/**
+ * Per-thread routing hints for the current request.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Holds the client session id resolved by ClientSessionInterceptor
+ *    - Holds whether reads must go to the primary (CacheLoadRouting)
+ *    - Read by ReadWriteRoutingDataSource for read-your-writes
+ * 
+ * 2. Lifecycle:
+ *    - Client id: set in preHandle, cleared in afterCompletion
+ *    - Primary required: set and reset around a cache load
+ */
+public final class RoutingContext {
+    
+    private static final ThreadLocal<String> CLIENT_ID = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+    
+    private RoutingContext() {
+    }
+    
+    public static void setClientId(String clientId) {
+        CLIENT_ID.set(clientId);
+    }
+    
+    public static String getClientId() {
+        return CLIENT_ID.get();
+    }
+    
+    public static void setPrimaryRequired(boolean primaryRequired) {
+        if (primaryRequired) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+    
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+    
+    public static void clear() {
+        CLIENT_ID.remove();
+        PRIMARY_REQUIRED.remove();
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Date;
 
@@ -27,6 +28,8 @@ import java.util.Date;
  * 3. Exception Types Handled:
  *    - ResourceNotFoundException: 404 Not Found
  *    - IllegalArgumentException: 400 Bad Request
+ *    - ResponseStatusException: its own status (429 rate limit, 410 expired
+ *      change cursor, 503 change feed full)
  *    - Exception: 500 Internal Server Error
  * 
  * 4. Response Structure:
@@ -77,6 +80,23 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
     
+    /**
+     * Handles exceptions that carry their own HTTP status
+     * @param ex the exception
+     * @param request the web request
+     * @return error response with the exception's status
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<?> handleResponseStatusException(
+            ResponseStatusException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            new Date(),
+            ex.getReason(),
+            request.getDescription(false));
+        
+        return new ResponseEntity<>(errorResponse, ex.getStatusCode());
+    }
+    
     /**
      * Handles all other exceptions
      * @param ex the exception
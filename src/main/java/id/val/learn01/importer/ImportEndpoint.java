@@ -0,0 +1,73 @@
+package id.val.learn01.importer;
+
+import id.val.learn01.model.ImportJob;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Actuator endpoint for bulk user imports.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Operations:
+ *    - POST /actuator/imports {"file": "users.csv", "format": "CSV"}:
+ *      starts an import of a file in app.import.directory (format is
+ *      optional, taken from the extension)
+ *    - GET /actuator/imports: recent jobs
+ *    - GET /actuator/imports/{id}: progress, rows per second and first rejects
+ *    - POST /actuator/imports/{id}: resumes a failed or interrupted job
+ * 
+ * 2. Usage:
+ *    - Served on the management port only, like the other admin operations;
+ *      it has no authentication and binds to 127.0.0.1 unless
+ *      management.server.address (MANAGEMENT_ADDRESS) says otherwise
+ *    - Invalid requests are 400 with the reason, unknown jobs are 404
+ */
+@Component
+@Endpoint(id = "imports")
+public class ImportEndpoint {
+    
+    private static final int RECENT_JOBS = 20;
+    
+    private final UserImporter importer;
+    
+    public ImportEndpoint(UserImporter importer) {
+        this.importer = importer;
+    }
+    
+    @ReadOperation
+    public List<ImportReport> imports() {
+        return importer.recent(RECENT_JOBS);
+    }
+    
+    @ReadOperation
+    public ImportReport importJob(@Selector String id) {
+        return importer.report(id);
+    }
+    
+    @WriteOperation
+    public ImportReport start(String file, @Nullable String format) throws IOException {
+        try {
+            return importer.start(file, format == null ? null : ImportJob.Format.valueOf(format.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+        }
+    }
+    
+    @WriteOperation
+    public ImportReport resume(@Selector String id) throws IOException {
+        try {
+            return importer.resume(id);
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package id.val.learn01.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Memory-mapped import file split into line-aligned chunks.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Splitting:
+ *    - Nominal split points every chunkSize bytes are moved forward to
+ *      the next line start, so no record spans two chunks
+ *    - The split only depends on the file and chunkSize; a resumed import
+ *      gets the same chunks
+ *    - Records must not contain raw line breaks (quoted CSV fields with
+ *      embedded newlines are rejected as malformed)
+ * 
+ * 2. Reading:
+ *    - Each chunk is mapped on its own (READ_ONLY), so files larger than
+ *      2 GB work and workers never share a buffer
+ *    - Lines are handed out with their byte offset in the file, used to
+ *      point at rejected rows
+ */
+final class ImportFile implements Closeable {
+    
+    private static final int SCAN_WINDOW = 64 * 1024;
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+    
+    private final FileChannel channel;
+    private final long size;
+    private final long dataStart;
+    private final byte[] firstLine;
+    
+    private ImportFile(FileChannel channel, boolean header) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        long start = hasUtf8Bom() ? 3 : 0;
+        if (header) {
+            long end = nextLineStart(start);
+            this.firstLine = stripLineEnd(read(start, end));
+            start = end;
+        } else {
+            this.firstLine = null;
+        }
+        this.dataStart = start;
+    }
+    
+    /**
+     * Opens a file
+     * @param path input file
+     * @param header whether the first line is a header
+     * @return opened file; close it when the import ends
+     * @throws IOException if the file cannot be read
+     */
+    static ImportFile open(Path path, boolean header) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ImportFile(channel, header);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+    
+    /**
+     * Header line without line break, or null if the file has no header
+     */
+    byte[] getHeader() {
+        return firstLine;
+    }
+    
+    /**
+     * Splits the data after the header into line-aligned chunks
+     * @param chunkSize nominal chunk size in bytes
+     * @return chunks in file order, at least one
+     * @throws IOException if the file cannot be read
+     */
+    List<Chunk> split(long chunkSize) throws IOException {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_BYTES / 2) {
+            throw new IllegalArgumentException("Chunk size must be between 1 byte and 512 MB");
+        }
+        List<Chunk> chunks = new ArrayList<>();
+        long start = dataStart;
+        while (start < size || chunks.isEmpty()) {
+            long end = start + chunkSize >= size ? size : nextLineStart(start + chunkSize);
+            if (end - start > MAX_CHUNK_BYTES) {
+                throw new IOException("Line longer than 512 MB at offset " + start);
+            }
+            chunks.add(new Chunk(chunks.size(), start, end));
+            start = end;
+        }
+        return chunks;
+    }
+    
+    /**
+     * Calls the consumer for every non-blank line of a chunk, without line breaks
+     * @param chunk chunk from split()
+     * @param consumer receives the byte offset in the file and the line
+     * @throws IOException if the file cannot be mapped
+     */
+    void forEachLine(Chunk chunk, LineConsumer consumer) throws IOException {
+        int length = (int) (chunk.end() - chunk.start());
+        if (length == 0) {
+            return;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), length);
+        int lineStart = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || buffer.get(i) == '\n') {
+                int lineEnd = i > lineStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+                if (lineEnd > lineStart && !isBlank(buffer, lineStart, lineEnd)) {
+                    byte[] line = new byte[lineEnd - lineStart];
+                    buffer.get(lineStart, line);
+                    consumer.accept(chunk.start() + lineStart, line);
+                }
+                lineStart = i + 1;
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    /**
+     * Position just after the first line break at or after position, or the file size
+     */
+    private long nextLineStart(long position) throws IOException {
+        long windowStart = position;
+        while (windowStart < size) {
+            int windowLength = (int) Math.min(SCAN_WINDOW, size - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+            for (int i = 0; i < windowLength; i++) {
+                if (window.get(i) == '\n') {
+                    return windowStart + i + 1;
+                }
+            }
+            windowStart += windowLength;
+        }
+        return size;
+    }
+    
+    private boolean hasUtf8Bom() throws IOException {
+        if (size < 3) {
+            return false;
+        }
+        byte[] bom = read(0, 3);
+        return (bom[0] & 0xff) == 0xEF && (bom[1] & 0xff) == 0xBB && (bom[2] & 0xff) == 0xBF;
+    }
+    
+    private byte[] read(long start, long end) throws IOException {
+        byte[] bytes = new byte[(int) (end - start)];
+        channel.read(ByteBuffer.wrap(bytes), start);
+        return bytes;
+    }
+    
+    private static byte[] stripLineEnd(byte[] line) {
+        int length = line.length;
+        while (length > 0 && (line[length - 1] == '\n' || line[length - 1] == '\r')) {
+            length--;
+        }
+        return length == line.length ? line : Arrays.copyOf(line, length);
+    }
+    
+    private static boolean isBlank(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Byte range [start, end) of the file, starting at a line start
+     * @param index position of the chunk in the file, used by checkpoints
+     * @param start first byte
+     * @param end byte after the last line
+     */
+    record Chunk(int index, long start, long end) {
+    }
+    
+    /**
+     * Receives the lines of a chunk
+     */
+    @FunctionalInterface
+    interface LineConsumer {
+        void accept(long offset, byte[] line);
+    }
+}
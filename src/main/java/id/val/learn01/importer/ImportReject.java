@@ -0,0 +1,13 @@
+package id.val.learn01.importer;
+
+/**
+ * Row of an import file that was not imported; one line of the rejects file.
+ * @param chunk chunk of the row
+ * @param shard shard that skipped the row as a duplicate email, or null if it failed parsing or validation
+ * @param part part of the chunk on that shard, or null if it failed parsing or validation
+ * @param offset byte offset of the row in the input file
+ * @param reason why it was rejected
+ * @param record the row (truncated), or the email for duplicates
+ */
+public record ImportReject(int chunk, Integer shard, Integer part, long offset, String reason, String record) {
+}
@@ -0,0 +1,29 @@
+package id.val.learn01.importer;
+
+import id.val.learn01.model.ImportJob;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress or outcome of a bulk import job.
+ * @param id job id, used to resume
+ * @param file input file, relative to app.import.directory
+ * @param format input format
+ * @param status RUNNING, COMPLETED or FAILED
+ * @param chunks number of chunks of the file
+ * @param chunksDone chunks committed on every shard
+ * @param imported users inserted
+ * @param rejected rows not imported
+ * @param rowsPerSecond rows (imported and rejected) per second of the current or last run
+ * @param startedAt start of the current or last run
+ * @param finishedAt end of the last run, null while running
+ * @param rejectsFile file listing every rejected row as NDJSON
+ * @param firstRejects first rejected rows
+ * @param error failure of the last run
+ */
+public record ImportReport(String id, String file, ImportJob.Format format, ImportJob.Status status,
+                           int chunks, int chunksDone, long imported, long rejected, double rowsPerSecond,
+                           Instant startedAt, Instant finishedAt, String rejectsFile,
+                           List<ImportReject> firstRejects, String error) {
+}
@@ -0,0 +1,141 @@
+package id.val.learn01.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.val.learn01.command.CreateUserCommand;
+import id.val.learn01.model.ImportJob;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns one line of an import file into a CreateUserCommand.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. CSV:
+ *    - The header names the columns; name and email are required, other
+ *      columns (e.g. id from GET /api/users/export) are ignored
+ *    - Fields may be quoted, with "" for a quote inside a quoted field
+ * 
+ * 2. NDJSON:
+ *    - One JSON object per line with name and email; other properties
+ *      are ignored
+ * 
+ * 3. Errors:
+ *    - A malformed line is an IllegalArgumentException whose message is
+ *      the reject reason; validation happens later in UserImporter
+ *    - Immutable after creation, shared by all import workers
+ */
+final class RecordParser {
+    
+    private final ImportJob.Format format;
+    private final ObjectMapper objectMapper;
+    private final int nameColumn;
+    private final int emailColumn;
+    private final int columns;
+    
+    private RecordParser(ImportJob.Format format, ObjectMapper objectMapper, int nameColumn, int emailColumn, int columns) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.nameColumn = nameColumn;
+        this.emailColumn = emailColumn;
+        this.columns = columns;
+    }
+    
+    /**
+     * Creates a CSV parser from the header line
+     * @param header header without line break
+     * @return parser
+     * @throws IllegalArgumentException if the header has no name or email column
+     */
+    static RecordParser csv(byte[] header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file has no header line");
+        }
+        List<String> names = splitCsv(new String(header, StandardCharsets.UTF_8));
+        int name = -1;
+        int email = -1;
+        for (int i = 0; i < names.size(); i++) {
+            String column = names.get(i).trim().toLowerCase(Locale.ROOT);
+            if (column.equals("name")) {
+                name = i;
+            } else if (column.equals("email")) {
+                email = i;
+            }
+        }
+        if (name < 0 || email < 0) {
+            throw new IllegalArgumentException("CSV header must contain name and email columns, found " + names);
+        }
+        return new RecordParser(ImportJob.Format.CSV, null, name, email, names.size());
+    }
+    
+    /**
+     * Creates an NDJSON parser
+     * @param objectMapper application object mapper
+     * @return parser
+     */
+    static RecordParser ndjson(ObjectMapper objectMapper) {
+        return new RecordParser(ImportJob.Format.NDJSON, objectMapper, -1, -1, 0);
+    }
+    
+    /**
+     * Parses one line
+     * @param line UTF-8 bytes without line break
+     * @return command with the raw name and email (may be null or blank)
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    CreateUserCommand parse(byte[] line) {
+        if (format == ImportJob.Format.NDJSON) {
+            try {
+                return objectMapper.readValue(line, CreateUserCommand.class);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException("Malformed JSON: " + ex.getOriginalMessage());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        List<String> fields = splitCsv(new String(line, StandardCharsets.UTF_8));
+        if (fields.size() != columns) {
+            throw new IllegalArgumentException("Expected " + columns + " columns, found " + fields.size());
+        }
+        CreateUserCommand command = new CreateUserCommand();
+        command.setName(fields.get(nameColumn));
+        command.setEmail(fields.get(emailColumn));
+        return command;
+    }
+    
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,683 @@
+package id.val.learn01.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.val.learn01.cache.CacheLoadRouting;
+import id.val.learn01.cache.UserSearchCache;
+import id.val.learn01.command.CreateUserCommand;
+import id.val.learn01.config.ImportProperties;
+import id.val.learn01.model.ImportCheckpoint;
+import id.val.learn01.model.ImportJob;
+import id.val.learn01.model.User;
+import id.val.learn01.repository.ImportCheckpointRepository;
+import id.val.learn01.repository.ImportJobRepository;
+import id.val.learn01.repository.ShardedUserRepository;
+import id.val.learn01.sharding.ShardRouter;
+import id.val.learn01.sharding.ShardTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulk import of users from CSV or NDJSON files.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Pipeline (per chunk, chunks in parallel on app.import.threads):
+ *    - The file is memory-mapped and split into line-aligned chunks of
+ *      app.import.chunk-size (ImportFile)
+ *    - Each line is parsed (RecordParser), trimmed and validated with the
+ *      CreateUserCommand constraints plus the 255 character column limit
+ *    - Valid rows are grouped by the shard of their email and written with
+ *      ShardedUserRepository.insertAll() in parts of
+ *      app.import.insert-batch-size rows: one shard transaction per part,
+ *      one multi-row INSERT each into user_emails, users and user_changes
+ *    - Committing per part keeps every transaction far shorter than
+ *      app.change-log.gap-timeout; change ids reserved by a transaction
+ *      open longer than that are skipped by ChangeLogPoller, and their
+ *      CREATED changes would never reach other instances or the feed
+ * 
+ * 2. Duplicate Emails:
+ *    - Emails already in user_emails, or repeated within the chunk, are
+ *      skipped by insertAll() and rejected
+ *    - The same email in two chunks imported at the same time collides on
+ *      the user_emails key; the shard transaction is retried and the
+ *      second row is then rejected as already registered
+ * 
+ * 3. Checkpoints and Resume:
+ *    - Every part transaction also writes an ImportCheckpoint, so
+ *      committed work is known exactly after a crash or failure
+ *    - resume() re-splits the unchanged file with the same chunk and part
+ *      size, skips chunks and shards whose last part has a checkpoint and
+ *      continues a partly committed shard after its last committed part
+ * 
+ * 4. Report:
+ *    - Rows per second, imported and rejected counts (ImportReport)
+ *    - Every reject is appended to <directory>/<job id>.rejects.ndjson
+ *      with its byte offset and reason; a resume drops the lines of
+ *      chunks that are processed again
+ * 
+ * 5. Caches:
+ *    - The users list is cleared once when a job finishes, not per row;
+ *      userById cannot hold the new ids
+ *    - Search results are invalidated after each part transaction that
+ *      inserted rows, a single generation increment (UserSearchCache)
+ *    - Both open the CacheLoadRouting window first, so the next loads
+ *      read the primary while replicas catch up
+ *    - Other instances and the change feed see the CREATED rows of the
+ *      change log like any other insert
+ * 
+ * 6. Metrics:
+ *    - import.rows{outcome}, import.chunk (time per chunk)
+ */
+@Component
+public class UserImporter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserImporter.class);
+    private static final int JOB_SHARD = 0;
+    private static final int MAX_COLUMN_LENGTH = 255;
+    private static final int MAX_RECORD_LENGTH = 1000;
+    private static final int MAX_ATTEMPTS = 3;
+    
+    private final ShardedUserRepository userRepository;
+    private final ImportJobRepository jobRepository;
+    private final ImportCheckpointRepository checkpointRepository;
+    private final ShardTemplate shardTemplate;
+    private final ShardRouter shardRouter;
+    private final ImportProperties properties;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+    private final UserSearchCache userSearchCache;
+    private final CacheLoadRouting cacheLoadRouting;
+    private final ExecutorService workers;
+    private final Map<String, Run> running = new ConcurrentHashMap<>();
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+    private final Timer chunkTimer;
+    
+    public UserImporter(ShardedUserRepository userRepository, ImportJobRepository jobRepository,
+                        ImportCheckpointRepository checkpointRepository, ShardTemplate shardTemplate,
+                        ShardRouter shardRouter, ImportProperties properties, Validator validator,
+                        ObjectMapper objectMapper, CacheManager cacheManager, UserSearchCache userSearchCache,
+                        CacheLoadRouting cacheLoadRouting, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.jobRepository = jobRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.shardTemplate = shardTemplate;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+        this.userSearchCache = userSearchCache;
+        this.cacheLoadRouting = cacheLoadRouting;
+        AtomicInteger sequence = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, properties.getThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "user-import-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.importedRows = Counter.builder("import.rows").tag("outcome", "imported")
+                .description("Rows of bulk imports by outcome")
+                .register(meterRegistry);
+        this.rejectedRows = Counter.builder("import.rows").tag("outcome", "rejected")
+                .description("Rows of bulk imports by outcome")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("import.chunk")
+                .description("Time to parse, validate and commit one import chunk")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Starts importing a file in the background
+     * @param file path relative to app.import.directory
+     * @param format file format, or null to use the extension (.csv, .ndjson, .jsonl)
+     * @return report of the started job
+     * @throws IllegalArgumentException if the file is missing, outside the directory or malformed
+     * @throws IOException if the file cannot be read
+     */
+    public ImportReport start(String file, ImportJob.Format format) throws IOException {
+        Path path = resolve(file);
+        ImportJob job = new ImportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setFile(directory().relativize(path).toString());
+        job.setFormat(format != null ? format : formatOf(path));
+        job.setFileSize(Files.size(path));
+        job.setFileModified(Files.getLastModifiedTime(path).toMillis());
+        job.setChunkSize(properties.getChunkSize().toBytes());
+        job.setPartSize(properties.getInsertBatchSize());
+        job.setImported(0L);
+        job.setRejected(0L);
+        return launch(job, Map.of(), Map.of());
+    }
+    
+    /**
+     * Continues a failed or interrupted job after its last committed chunks
+     * @param jobId job id
+     * @return report of the resumed job
+     * @throws IllegalArgumentException if the job is unknown or its file changed
+     * @throws IllegalStateException if the job is running or completed
+     * @throws IOException if the file cannot be read
+     */
+    public ImportReport resume(String jobId) throws IOException {
+        if (running.containsKey(jobId)) {
+            throw new IllegalStateException("Import " + jobId + " is already running");
+        }
+        ImportJob job = findJob(jobId).orElseThrow(() -> new IllegalArgumentException("Unknown import job " + jobId));
+        if (job.getStatus() == ImportJob.Status.COMPLETED) {
+            throw new IllegalStateException("Import " + jobId + " is already completed");
+        }
+        Path path = resolve(job.getFile());
+        if (Files.size(path) != job.getFileSize()
+                || Files.getLastModifiedTime(path).toMillis() != job.getFileModified()) {
+            throw new IllegalArgumentException("File " + job.getFile() + " changed since the import started, start a new import");
+        }
+        
+        // On the primary: the checkpoints must include everything committed so far
+        List<List<ImportCheckpoint>> perShard = shardTemplate.scatter(false, shard -> checkpointRepository.findByJobId(jobId));
+        Map<Integer, Set<Integer>> committed = new HashMap<>();
+        Map<Integer, Map<Integer, Integer>> partsDone = new HashMap<>();
+        long imported = 0;
+        long rejected = 0;
+        for (int shard = 0; shard < perShard.size(); shard++) {
+            for (ImportCheckpoint checkpoint : perShard.get(shard)) {
+                if (checkpoint.getFinalPart()) {
+                    committed.computeIfAbsent(checkpoint.getChunk(), chunk -> new HashSet<>()).add(shard);
+                }
+                // Parts of a shard commit in order, so parts 0 up to the highest are all committed
+                partsDone.computeIfAbsent(checkpoint.getChunk(), chunk -> new HashMap<>())
+                        .merge(shard, checkpoint.getPart() + 1, Math::max);
+                imported += checkpoint.getImported();
+                rejected += checkpoint.getRejected();
+            }
+        }
+        if (job.getPartSize() == null) {
+            // Started before imports committed in parts: every checkpoint covers a whole chunk and shard
+            job.setPartSize(properties.getInsertBatchSize());
+        }
+        job.setImported(imported);
+        job.setRejected(rejected + keepCommittedRejects(jobId, committed, partsDone));
+        return launch(job, committed, partsDone);
+    }
+    
+    /**
+     * Reports a job
+     * @param jobId job id
+     * @return live report while running here, else the stored outcome; null if unknown
+     */
+    public ImportReport report(String jobId) {
+        Run run = running.get(jobId);
+        if (run != null) {
+            return report(run);
+        }
+        return findJob(jobId).map(job -> report(job, job.getChunksDone(), job.getImported(), job.getRejected(),
+                job.getRowsPerSecond())).orElse(null);
+    }
+    
+    /**
+     * Reports the most recent jobs
+     * @param limit maximum number of jobs
+     * @return reports, newest first
+     */
+    public List<ImportReport> recent(int limit) {
+        List<ImportJob> jobs = shardTemplate.inShard(JOB_SHARD, true,
+                () -> jobRepository.findByOrderByStartedAtDesc(Limit.of(limit)));
+        List<ImportReport> reports = new ArrayList<>(jobs.size());
+        for (ImportJob job : jobs) {
+            reports.add(report(job.getId()));
+        }
+        return reports;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted jobs stay RUNNING in import_jobs and can be resumed
+        workers.shutdownNow();
+        running.values().forEach(Run::close);
+    }
+    
+    private ImportReport launch(ImportJob job, Map<Integer, Set<Integer>> committed,
+                                Map<Integer, Map<Integer, Integer>> partsDone) throws IOException {
+        ImportFile importFile = ImportFile.open(resolve(job.getFile()), job.getFormat() == ImportJob.Format.CSV);
+        Run run;
+        List<ImportFile.Chunk> pending;
+        try {
+            RecordParser parser = job.getFormat() == ImportJob.Format.CSV
+                    ? RecordParser.csv(importFile.getHeader())
+                    : RecordParser.ndjson(objectMapper);
+            List<ImportFile.Chunk> chunks = importFile.split(job.getChunkSize());
+            int shards = shardRouter.getShardCount();
+            pending = chunks.stream()
+                    .filter(chunk -> committed.getOrDefault(chunk.index(), Set.of()).size() < shards)
+                    .toList();
+            job.setChunks(chunks.size());
+            job.setChunksDone(chunks.size() - pending.size());
+            job.setStatus(ImportJob.Status.RUNNING);
+            job.setRowsPerSecond(0.0);
+            job.setStartedAt(Instant.now());
+            job.setFinishedAt(null);
+            job.setError(null);
+            run = new Run(job, importFile, parser, committed, partsDone, openRejects(job.getId()));
+        } catch (IOException | RuntimeException ex) {
+            importFile.close();
+            throw ex;
+        }
+        if (running.putIfAbsent(job.getId(), run) != null) {
+            run.close();
+            throw new IllegalStateException("Import " + job.getId() + " is already running");
+        }
+        try {
+            saveJob(job);
+            logger.info("Import {} of {} started: {} of {} chunks to do", job.getId(), job.getFile(),
+                    pending.size(), job.getChunks());
+            CompletableFuture<?>[] tasks = pending.stream()
+                    .map(chunk -> CompletableFuture.runAsync(() -> importChunk(run, chunk), workers))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(tasks).whenComplete((ignored, failure) -> finish(run, failure));
+        } catch (RuntimeException ex) {
+            running.remove(job.getId());
+            run.close();
+            throw ex;
+        }
+        return report(run);
+    }
+    
+    private void importChunk(Run run, ImportFile.Chunk chunk) {
+        if (run.failure != null) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            int shards = shardRouter.getShardCount();
+            List<List<User>> perShard = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                perShard.add(new ArrayList<>());
+            }
+            Map<User, Long> offsets = new IdentityHashMap<>();
+            List<ImportReject> rejects = new ArrayList<>();
+            run.file.forEachLine(chunk, (offset, line) -> {
+                try {
+                    User user = toUser(run.parser.parse(line));
+                    perShard.get(shardRouter.shardOfEmail(user.getEmail())).add(user);
+                    offsets.put(user, offset);
+                } catch (IllegalArgumentException ex) {
+                    rejects.add(new ImportReject(chunk.index(), null, null, offset, ex.getMessage(),
+                            abbreviate(new String(line, StandardCharsets.UTF_8))));
+                }
+            });
+            // Written before any shard commits, so a checkpoint implies these lines are on disk
+            run.writeRejects(rejects);
+            run.rejected.add(rejects.size());
+            rejectedRows.increment(rejects.size());
+            
+            Set<Integer> done = run.committed.getOrDefault(chunk.index(), Set.of());
+            Map<Integer, Integer> partsDone = run.partsDone.getOrDefault(chunk.index(), Map.of());
+            for (int shard = 0; shard < shards; shard++) {
+                if (!done.contains(shard)) {
+                    insertShard(run, chunk, shard, partsDone.getOrDefault(shard, 0), perShard.get(shard), offsets);
+                }
+            }
+            run.chunksDone.incrementAndGet();
+        } catch (IOException ex) {
+            run.fail(ex);
+            throw new UncheckedIOException(ex);
+        } catch (RuntimeException ex) {
+            run.fail(ex);
+            throw ex;
+        } finally {
+            chunkTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private void insertShard(Run run, ImportFile.Chunk chunk, int shard, int firstPart, List<User> users,
+                             Map<User, Long> offsets) {
+        int partSize = run.job.getPartSize();
+        // A shard without rows still commits one empty part, its checkpoint marks the shard done
+        int parts = Math.max(1, (users.size() + partSize - 1) / partSize);
+        for (int part = firstPart; part < parts; part++) {
+            List<User> slice = users.subList(Math.min(part * partSize, users.size()),
+                    Math.min((part + 1) * partSize, users.size()));
+            insertPart(run, chunk, shard, part, part == parts - 1, slice, offsets);
+        }
+    }
+    
+    private void insertPart(Run run, ImportFile.Chunk chunk, int shard, int part, boolean finalPart, List<User> users,
+                            Map<User, Long> offsets) {
+        String jobId = run.job.getId();
+        for (int attempt = 1; ; attempt++) {
+            List<User> skipped = new ArrayList<>();
+            try {
+                List<User> inserted = userRepository.insertAll(shard, users, properties.getInsertBatchSize(), duplicates -> {
+                    skipped.addAll(duplicates);
+                    checkpointRepository.save(new ImportCheckpoint(jobId, chunk.index(), part, finalPart,
+                            users.size() - duplicates.size(), duplicates.size()));
+                });
+                if (!inserted.isEmpty()) {
+                    cacheLoadRouting.invalidated();
+                    userSearchCache.invalidate();
+                }
+                run.imported.add(inserted.size());
+                run.rejected.add(skipped.size());
+                importedRows.increment(inserted.size());
+                rejectedRows.increment(skipped.size());
+                run.writeRejects(skipped.stream()
+                        .map(user -> new ImportReject(chunk.index(), shard, part, offsets.get(user),
+                                "Email is already registered", user.getEmail()))
+                        .toList());
+                return;
+            } catch (DataIntegrityViolationException ex) {
+                // An email claimed concurrently by another chunk or request, or this chunk committed by another run
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw ex;
+                }
+                logger.debug("Retrying part {} of chunk {} of import {} on shard {} after a key conflict",
+                        part, chunk.index(), jobId, shard);
+                if (shardTemplate.inShard(shard, false,
+                        () -> checkpointRepository.existsByJobIdAndChunkAndPart(jobId, chunk.index(), part))) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void finish(Run run, Throwable failure) {
+        Throwable cause = run.failure != null ? run.failure : failure;
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        run.close();
+        ImportJob job = run.job;
+        long imported = run.imported.sum();
+        long rejected = run.rejected.sum();
+        job.setStatus(cause == null ? ImportJob.Status.COMPLETED : ImportJob.Status.FAILED);
+        job.setError(cause == null ? null : abbreviate(cause.getClass().getSimpleName() + ": " + cause.getMessage()));
+        job.setChunksDone(run.chunksDone.get());
+        job.setImported(imported);
+        job.setRejected(rejected);
+        job.setRowsPerSecond(run.rowsPerSecond());
+        job.setFinishedAt(Instant.now());
+        try {
+            saveJob(job);
+        } catch (RuntimeException ex) {
+            logger.error("Could not store the outcome of import {}", job.getId(), ex);
+        }
+        if (imported > run.importedBefore) {
+            cacheLoadRouting.invalidated();
+            Cache users = cacheManager.getCache("users");
+            if (users != null) {
+                users.clear();
+            }
+        }
+        running.remove(job.getId());
+        if (cause == null) {
+            logger.info("Import {} completed: {} imported, {} rejected, {} rows/s", job.getId(), imported, rejected,
+                    String.format(Locale.ROOT, "%.0f", job.getRowsPerSecond()));
+        } else {
+            logger.error("Import {} failed after {} of {} chunks, resume it to continue", job.getId(),
+                    job.getChunksDone(), job.getChunks(), cause);
+        }
+    }
+    
+    /**
+     * Trims and validates a parsed row
+     */
+    private User toUser(CreateUserCommand command) {
+        command.setName(command.getName() == null ? null : command.getName().trim());
+        command.setEmail(command.getEmail() == null ? null : command.getEmail().trim());
+        Set<ConstraintViolation<CreateUserCommand>> violations = validator.validate(command);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .reduce((first, second) -> first + "; " + second)
+                    .orElseThrow());
+        }
+        if (command.getName().length() > MAX_COLUMN_LENGTH || command.getEmail().length() > MAX_COLUMN_LENGTH) {
+            throw new IllegalArgumentException("Name and email must not be longer than " + MAX_COLUMN_LENGTH + " characters");
+        }
+        User user = new User();
+        user.setName(command.getName());
+        user.setEmail(command.getEmail());
+        return user;
+    }
+    
+    /**
+     * Rewrites the rejects file keeping only lines that will not be produced again, returns the kept parse rejects
+     */
+    private long keepCommittedRejects(String jobId, Map<Integer, Set<Integer>> committed,
+                                      Map<Integer, Map<Integer, Integer>> partsDone) throws IOException {
+        Path rejects = rejectsPath(jobId);
+        if (!Files.exists(rejects)) {
+            return 0;
+        }
+        int shards = shardRouter.getShardCount();
+        Path temporary = rejects.resolveSibling(rejects.getFileName() + ".tmp");
+        long parseRejects = 0;
+        try (BufferedReader reader = Files.newBufferedReader(rejects, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ImportReject reject;
+                try {
+                    reject = objectMapper.readValue(line, ImportReject.class);
+                } catch (JsonProcessingException ex) {
+                    // Torn last line of a crashed run
+                    continue;
+                }
+                Set<Integer> done = committed.getOrDefault(reject.chunk(), Set.of());
+                boolean keep;
+                if (reject.shard() == null) {
+                    // Parse rejects are written again until every shard of the chunk is done
+                    keep = done.size() == shards;
+                } else {
+                    keep = done.contains(reject.shard()) || (reject.part() != null
+                            && reject.part() < partsDone.getOrDefault(reject.chunk(), Map.of()).getOrDefault(reject.shard(), 0));
+                }
+                if (keep) {
+                    writer.write(line);
+                    writer.newLine();
+                    if (reject.shard() == null) {
+                        parseRejects++;
+                    }
+                }
+            }
+        }
+        Files.move(temporary, rejects, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return parseRejects;
+    }
+    
+    private List<ImportReject> readRejects(String jobId, int limit) {
+        Path rejects = rejectsPath(jobId);
+        List<ImportReject> first = new ArrayList<>();
+        if (limit <= 0 || !Files.exists(rejects)) {
+            return first;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(rejects, StandardCharsets.UTF_8)) {
+            String line;
+            while (first.size() < limit && (line = reader.readLine()) != null) {
+                try {
+                    first.add(objectMapper.readValue(line, ImportReject.class));
+                } catch (JsonProcessingException ex) {
+                    // Line still being written
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not read rejects of import {}", jobId, ex);
+        }
+        return first;
+    }
+    
+    private BufferedWriter openRejects(String jobId) throws IOException {
+        Files.createDirectories(directory());
+        return Files.newBufferedWriter(rejectsPath(jobId), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+    
+    private ImportReport report(Run run) {
+        return report(run.job, run.chunksDone.get(), run.imported.sum(), run.rejected.sum(), run.rowsPerSecond());
+    }
+    
+    private ImportReport report(ImportJob job, int chunksDone, long imported, long rejected, double rowsPerSecond) {
+        return new ImportReport(job.getId(), job.getFile(), job.getFormat(), job.getStatus(), job.getChunks(), chunksDone,
+                imported, rejected, rowsPerSecond, job.getStartedAt(), job.getFinishedAt(),
+                rejectsPath(job.getId()).toString(), readRejects(job.getId(), properties.getReportedRejects()),
+                job.getError());
+    }
+    
+    private Optional<ImportJob> findJob(String jobId) {
+        return shardTemplate.inShard(JOB_SHARD, false, () -> jobRepository.findById(jobId));
+    }
+    
+    private void saveJob(ImportJob job) {
+        shardTemplate.inShard(JOB_SHARD, false, () -> jobRepository.save(job));
+    }
+    
+    private Path resolve(String file) {
+        Path directory = directory();
+        Path path = directory.resolve(file).normalize();
+        if (!path.startsWith(directory)) {
+            throw new IllegalArgumentException("Import file must be inside " + directory);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("Import file not found: " + file);
+        }
+        return path;
+    }
+    
+    private Path directory() {
+        return properties.getDirectory().toAbsolutePath().normalize();
+    }
+    
+    private Path rejectsPath(String jobId) {
+        return directory().resolve(jobId + ".rejects.ndjson");
+    }
+    
+    private static ImportJob.Format formatOf(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return ImportJob.Format.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return ImportJob.Format.NDJSON;
+        }
+        throw new IllegalArgumentException("Unknown import format of " + path.getFileName() + ", use .csv, .ndjson or .jsonl");
+    }
+    
+    private static String abbreviate(String value) {
+        return value.length() <= MAX_RECORD_LENGTH ? value : value.substring(0, MAX_RECORD_LENGTH) + "...";
+    }
+    
+    /**
+     * State of a job while it runs on this instance
+     */
+    private final class Run {
+        private final ImportJob job;
+        private final ImportFile file;
+        private final RecordParser parser;
+        private final Map<Integer, Set<Integer>> committed;
+        private final Map<Integer, Map<Integer, Integer>> partsDone;
+        private final BufferedWriter rejectsWriter;
+        private final LongAdder imported = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final AtomicInteger chunksDone;
+        private final long importedBefore;
+        private final long processedBefore;
+        private final long startNanos = System.nanoTime();
+        private volatile Throwable failure;
+        
+        private Run(ImportJob job, ImportFile file, RecordParser parser, Map<Integer, Set<Integer>> committed,
+                    Map<Integer, Map<Integer, Integer>> partsDone, BufferedWriter rejectsWriter) {
+            this.job = job;
+            this.file = file;
+            this.parser = parser;
+            this.committed = committed;
+            this.partsDone = partsDone;
+            this.rejectsWriter = rejectsWriter;
+            this.chunksDone = new AtomicInteger(job.getChunksDone());
+            this.importedBefore = job.getImported();
+            this.processedBefore = job.getImported() + job.getRejected();
+            imported.add(job.getImported());
+            rejected.add(job.getRejected());
+        }
+        
+        private void fail(Throwable cause) {
+            if (failure == null) {
+                failure = cause;
+            }
+        }
+        
+        private double rowsPerSecond() {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            long processed = imported.sum() + rejected.sum() - processedBefore;
+            return seconds <= 0 ? 0.0 : processed / seconds;
+        }
+        
+        private synchronized void writeRejects(List<ImportReject> rejects) {
+            if (rejects.isEmpty()) {
+                return;
+            }
+            try {
+                for (ImportReject reject : rejects) {
+                    rejectsWriter.write(objectMapper.writeValueAsString(reject));
+                    rejectsWriter.newLine();
+                }
+                rejectsWriter.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        
+        private synchronized void close() {
+            try {
+                rejectsWriter.close();
+            } catch (IOException ex) {
+                logger.warn("Could not close rejects of import {}", job.getId(), ex);
+            }
+            try {
+                file.close();
+            } catch (IOException ex) {
+                logger.warn("Could not close import file {}", job.getFile(), ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package id.val.learn01.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+/**
+ * Committed part of a bulk import chunk on one shard.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - The rows of a chunk on one shard are committed in parts of
+ *      ImportJob.partSize rows, one shard transaction each; a checkpoint
+ *      is written in the same transaction as the users of its part, so
+ *      it exists exactly when those users were committed
+ *    - Parts of a chunk commit in order; a chunk is done when every shard
+ *      has the checkpoint of its final part, and a resumed import skips
+ *      done chunks and the parts already committed
+ *    - The unique (job_id, chunk, part) key also stops two runs of the
+ *      same job from committing a part twice
+ * 
+ * 2. Class Fields:
+ *    - jobId, chunk, part: which part of which import
+ *    - finalPart: whether this is the last part of the chunk on this shard
+ *    - imported: users inserted by this part
+ *    - rejected: rows of this part skipped as already registered
+ */
+@Entity
+@Table(name = "import_checkpoints",
+        uniqueConstraints = @UniqueConstraint(name = "uk_import_checkpoints_job_chunk_part",
+                columnNames = {"job_id", "chunk", "part"}))
+@Data
+@NoArgsConstructor
+public class ImportCheckpoint {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "job_id", nullable = false, length = 36)
+    private String jobId;
+    
+    @Column(nullable = false)
+    private Integer chunk;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Integer part;
+    
+    @ColumnDefault("true")
+    @Column(name = "final_part", nullable = false)
+    private Boolean finalPart;
+    
+    @Column(nullable = false)
+    private Long imported;
+    
+    @Column(nullable = false)
+    private Long rejected;
+    
+    @Column(name = "committed_at", nullable = false)
+    private Instant committedAt;
+    
+    public ImportCheckpoint(String jobId, int chunk, int part, boolean finalPart, long imported, long rejected) {
+        this.jobId = jobId;
+        this.chunk = chunk;
+        this.part = part;
+        this.finalPart = finalPart;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.committedAt = Instant.now();
+    }
+}
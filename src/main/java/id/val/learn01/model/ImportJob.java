@@ -0,0 +1,101 @@
+package id.val.learn01.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Bulk user import job.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Remembers which file an import reads and how it was split, so a
+ *      failed import can be resumed with the same chunks
+ *    - Stored on shard 0; the per-chunk progress is in ImportCheckpoint
+ *      on every shard
+ * 
+ * 2. Class Fields:
+ *    - file, format: input file (relative to app.import.directory)
+ *    - fileSize, fileModified: detect a file changed before a resume
+ *    - chunkSize, chunks: how the file was split
+ *    - partSize: rows per shard transaction within a chunk; kept so a
+ *      resume cuts the chunks into the same parts
+ *    - chunksDone, imported, rejected: totals over all runs
+ *    - status, rowsPerSecond, startedAt, finishedAt, error: last run
+ */
+@Entity
+@Table(name = "import_jobs")
+@Data
+@NoArgsConstructor
+public class ImportJob {
+    
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    @Column(nullable = false, length = 1024)
+    private String file;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Format format;
+    
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+    
+    @Column(name = "file_modified", nullable = false)
+    private Long fileModified;
+    
+    @Column(name = "chunk_size", nullable = false)
+    private Long chunkSize;
+    
+    @Column(nullable = false)
+    private Integer chunks;
+    
+    @Column(name = "part_size")
+    private Integer partSize;
+    
+    @Column(name = "chunks_done", nullable = false)
+    private Integer chunksDone;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+    
+    @Column(nullable = false)
+    private Long imported;
+    
+    @Column(nullable = false)
+    private Long rejected;
+    
+    @Column(name = "rows_per_second", nullable = false)
+    private Double rowsPerSecond;
+    
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+    
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+    
+    @Column(length = 1000)
+    private String error;
+    
+    /**
+     * Input file format
+     */
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+    
+    /**
+     * State of the job
+     */
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
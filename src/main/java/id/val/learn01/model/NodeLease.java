@@ -0,0 +1,79 @@
+package id.val.learn01.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Lease on one node id of ShardedIdGenerator.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - A running instance holds exactly one row, so no two instances put
+ *      the same node id into the ids they generate
+ *    - Lives on shard 0; the primary key makes claiming a free node id a
+ *      plain insert that fails for the loser
+ * 
+ * 2. Class Fields:
+ *    - nodeId: node id, 0-31 (primary key)
+ *    - owner: instance id of the holder (ChangeLog.getInstanceId())
+ *    - expiresAt: end of the lease unless renewed; an expired row may be
+ *      taken over by another instance
+ * 
+ * 3. Persistable:
+ *    - The key is always assigned, so save() inserts directly instead of
+ *      merging into an existing lease
+ */
+@Entity
+@Table(name = "node_leases")
+@Data
+@NoArgsConstructor
+public class NodeLease implements Persistable<Integer> {
+    
+    @Id
+    @Column(name = "node_id")
+    private Integer nodeId;
+    
+    @Column(nullable = false, length = 36)
+    private String owner;
+    
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+    
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean fresh = true;
+    
+    public NodeLease(int nodeId, String owner, Instant expiresAt) {
+        this.nodeId = nodeId;
+        this.owner = owner;
+        this.expiresAt = expiresAt;
+    }
+    
+    @Override
+    public Integer getId() {
+        return nodeId;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        fresh = false;
+    }
+}
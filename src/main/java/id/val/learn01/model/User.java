@@ -1,7 +1,15 @@
 package id.val.learn01.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * Entity class representing a User in the system.
@@ -25,16 +33,26 @@ import lombok.Data;
  *      * Provides data validation
  * 
  * 3. Class Fields:
- *    - id: Primary key
+ *    - id: Primary key, assigned by ShardedIdGenerator (encodes the shard);
+ *      written to JSON as a string because it exceeds 2^53, the largest
+ *      integer a JavaScript number holds exactly (numbers are still read)
  *    - name: User's full name
- *    - email: User's email address
+ *    - email: User's email address; mutable natural id, unique across
+ *      shards through user_emails
+ *    - version: Optimistic lock version, bumped by every update; used to
+ *      validate restored cache snapshots (not part of the JSON API)
  * 
  * 4. Annotations Used:
  *    - @Entity: Marks as JPA entity
  *    - @Table: Specifies table name
  *    - @Id: Marks primary key
- *    - @GeneratedValue: Configures ID generation
+ *    - @JsonSerialize(ToStringSerializer): id as a JSON string
  *    - @Column: Configures column properties
+ *    - @Version: Optimistic locking; existing rows start at 0
+ *    - @NaturalId: Allows lookups by email through Hibernate's natural-id API
+ *    - @Cache / @NaturalIdCache: Hibernate second-level cache regions "user"
+ *      (entity by id) and "userByEmail" (email to id resolution), see
+ *      CacheConfig; updates and deletes through Hibernate refresh both
  *    - @Data: Lombok annotation for getters/setters
  * 
  * 5. Best Practices:
@@ -46,16 +64,25 @@ import lombok.Data;
  */
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "userByEmail")
 @Data
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     
     @Column(nullable = false)
     private String name;
     
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String email;
+    
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
 } 
\ No newline at end of file
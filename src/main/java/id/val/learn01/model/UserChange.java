@@ -0,0 +1,67 @@
+package id.val.learn01.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Row of the user change log.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - One row per user insert, update or delete, written in the same
+ *      shard transaction as the change itself (ChangeLog)
+ *    - Lives on the user's shard; the auto-increment id orders the
+ *      changes of one shard
+ * 
+ * 2. Class Fields:
+ *    - id: sequence number within the shard
+ *    - userId, type: which user changed and how
+ *    - version, name, email: user state after the change; a DELETED row
+ *      keeps the last state as a tombstone
+ *    - origin: instance that made the change
+ *    - changedAt: commit-side timestamp, used for lag and retention
+ */
+@Entity
+@Table(name = "user_changes", indexes = @Index(name = "idx_user_changes_changed_at", columnList = "changed_at"))
+@Data
+@NoArgsConstructor
+public class UserChange {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+    
+    @Column(nullable = false)
+    private Long version;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(nullable = false)
+    private String email;
+    
+    @Column(nullable = false, length = 36)
+    private String origin;
+    
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+    
+    /**
+     * Kind of change
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,70 @@
+package id.val.learn01.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Email lookup entry that keeps emails unique across shards.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Maps a normalized email to the id of the user that owns it
+ *    - Lives on the shard chosen by the email hash, so the primary key
+ *      enforces uniqueness for all shards
+ * 
+ * 2. Class Fields:
+ *    - email: lower-cased email (primary key)
+ *    - userId: owning user, which encodes the user's shard
+ * 
+ * 3. Persistable:
+ *    - The key is always assigned, so isNew() tracks whether the row was
+ *      loaded; save() then inserts directly instead of merging
+ */
+@Entity
+@Table(name = "user_emails")
+@Data
+@NoArgsConstructor
+public class UserEmail implements Persistable<String> {
+    
+    @Id
+    @Column(length = 255)
+    private String email;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean fresh = true;
+    
+    public UserEmail(String email, Long userId) {
+        this.email = email;
+        this.userId = userId;
+    }
+    
+    @Override
+    public String getId() {
+        return email;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        fresh = false;
+    }
+}
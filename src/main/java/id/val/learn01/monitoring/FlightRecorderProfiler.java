@@ -0,0 +1,257 @@
+package id.val.learn01.monitoring;
+
+import id.val.learn01.config.ProfilingProperties;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * On-demand JDK Flight Recorder profiles with a summarized report.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - start(): begins a bounded recording; only one runs at a time
+ *    - stop(): ends the running recording early
+ *    - After the recording ends it is written to app.profiling.directory
+ *      and summarized by JfrSummary (hot methods, allocation sites,
+ *      contended monitors, parked threads, slow socket I/O)
+ *    - The last app.profiling.keep reports and files are kept
+ * 
+ * 2. Overhead:
+ *    - The recording starts empty and enables only the events it reports,
+ *      not the JDK "profile" settings
+ *    - Execution samples every app.profiling.execution-sample-period,
+ *      allocation samples throttled to a fixed rate per second, locks and
+ *      socket operations only above a threshold, each with a stack trace
+ *    - Duration and disk size are capped, so a forgotten recording ends
+ * 
+ * 3. Threads:
+ *    - A single "jfr-profiler" thread stops the recording and builds the
+ *      report; request threads are never blocked by it
+ */
+@Component
+public class FlightRecorderProfiler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderProfiler.class);
+    
+    private final ProfilingProperties properties;
+    private final ScheduledExecutorService executor;
+    private final Map<String, Profile> profiles = new LinkedHashMap<>();
+    private Profile running;
+    
+    public FlightRecorderProfiler(ProfilingProperties properties) {
+        this.properties = properties;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jfr-profiler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Starts a recording
+     * @param duration recording length, or null for app.profiling.default-duration
+     * @return report with status RECORDING
+     * @throws IllegalArgumentException if the duration is not positive or above app.profiling.max-duration
+     * @throws IllegalStateException if a recording is running or Flight Recorder is unavailable
+     * @throws IOException if the profile directory cannot be created
+     */
+    public synchronized ProfileReport start(Duration duration) throws IOException {
+        Duration length = duration == null ? properties.getDefaultDuration() : duration;
+        if (length.isNegative() || length.isZero() || length.compareTo(properties.getMaxDuration()) > 0) {
+            throw new IllegalArgumentException("Duration must be positive and at most " + properties.getMaxDuration());
+        }
+        if (running != null) {
+            throw new IllegalStateException("Profile " + running.id + " is still recording");
+        }
+        if (!FlightRecorder.isAvailable()) {
+            throw new IllegalStateException("Flight Recorder is not available in this JVM");
+        }
+        Files.createDirectories(properties.getDirectory());
+        
+        String id = UUID.randomUUID().toString();
+        Recording recording = new Recording(settings());
+        recording.setName("learn01-profile-" + id);
+        recording.setToDisk(true);
+        recording.setMaxSize(properties.getMaxSize().toBytes());
+        recording.setDestination(file(id));
+        recording.start();
+        
+        Profile profile = new Profile(id, recording, Instant.now());
+        profile.report = ProfileReport.recording(id, profile.startedAt);
+        profile.stopTask = executor.schedule(() -> finish(profile), length.toMillis(), TimeUnit.MILLISECONDS);
+        running = profile;
+        profiles.put(id, profile);
+        removeOldProfiles();
+        logger.info("Profile {} recording for {}", id, length);
+        return profile.report;
+    }
+    
+    /**
+     * Ends the running recording now; its report follows shortly
+     * @return report of the running profile, or null if none is running
+     */
+    public synchronized ProfileReport stop() {
+        if (running == null) {
+            return null;
+        }
+        Profile profile = running;
+        if (profile.stopTask.cancel(false)) {
+            executor.execute(() -> finish(profile));
+        }
+        return profile.report;
+    }
+    
+    /**
+     * Report of a profile
+     * @param id profile id
+     * @return the report, or null if unknown
+     */
+    public synchronized ProfileReport report(String id) {
+        Profile profile = profiles.get(id);
+        return profile == null ? null : profile.report;
+    }
+    
+    /**
+     * Reports of the kept profiles
+     * @return reports, newest first
+     */
+    public synchronized List<ProfileReport> recent() {
+        List<ProfileReport> reports = new ArrayList<>(profiles.size());
+        profiles.values().forEach(profile -> reports.add(0, profile.report));
+        return reports;
+    }
+    
+    /**
+     * Recording file of a completed profile
+     * @param id profile id
+     * @return the .jfr file, or null if unknown or not completed
+     */
+    public synchronized Path recordingFile(String id) {
+        Profile profile = profiles.get(id);
+        if (profile == null || profile.report.status() != ProfileReport.Status.COMPLETED) {
+            return null;
+        }
+        return file(id);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        synchronized (this) {
+            if (running != null) {
+                running.recording.close();
+                running = null;
+            }
+        }
+    }
+    
+    /**
+     * Stops, writes and summarizes a recording; runs on the profiler thread
+     */
+    private void finish(Profile profile) {
+        ProfileReport report;
+        try {
+            profile.recording.stop();
+            report = JfrSummary.read(file(profile.id), profile.id, profile.startedAt, Instant.now(), properties.getTop());
+            logger.info("Profile {} completed: {} bytes, {} events", profile.id, report.fileBytes(),
+                    report.eventCounts().values().stream().mapToLong(Long::longValue).sum());
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Profile {} failed", profile.id, ex);
+            report = ProfileReport.failed(profile.id, profile.startedAt, ex.toString());
+        } finally {
+            profile.recording.close();
+        }
+        synchronized (this) {
+            profile.report = report;
+            if (running == profile) {
+                running = null;
+            }
+        }
+    }
+    
+    /**
+     * Only the reported events, each with a stack trace; everything else stays disabled
+     */
+    private Map<String, String> settings() {
+        String lockThreshold = properties.getLockThreshold().toMillis() + " ms";
+        String socketThreshold = properties.getSocketThreshold().toMillis() + " ms";
+        Map<String, String> settings = new HashMap<>();
+        settings.put("jdk.ExecutionSample#enabled", "true");
+        settings.put("jdk.ExecutionSample#period", properties.getExecutionSamplePeriod().toMillis() + " ms");
+        settings.put("jdk.ObjectAllocationSample#enabled", "true");
+        settings.put("jdk.ObjectAllocationSample#throttle", properties.getAllocationSamplesPerSecond() + "/s");
+        settings.put("jdk.ObjectAllocationSample#stackTrace", "true");
+        for (String event : List.of("jdk.JavaMonitorEnter", "jdk.ThreadPark")) {
+            settings.put(event + "#enabled", "true");
+            settings.put(event + "#threshold", lockThreshold);
+            settings.put(event + "#stackTrace", "true");
+        }
+        for (String event : List.of("jdk.SocketRead", "jdk.SocketWrite")) {
+            settings.put(event + "#enabled", "true");
+            settings.put(event + "#threshold", socketThreshold);
+            settings.put(event + "#stackTrace", "true");
+        }
+        return settings;
+    }
+    
+    private Path file(String id) {
+        return properties.getDirectory().resolve(id + ".jfr");
+    }
+    
+    /**
+     * Drops the oldest finished profiles and their files beyond app.profiling.keep
+     */
+    private void removeOldProfiles() {
+        Iterator<Profile> iterator = profiles.values().iterator();
+        while (profiles.size() > Math.max(properties.getKeep(), 1) && iterator.hasNext()) {
+            Profile oldest = iterator.next();
+            if (oldest == running) {
+                continue;
+            }
+            iterator.remove();
+            try {
+                Files.deleteIfExists(file(oldest.id));
+            } catch (IOException ex) {
+                logger.warn("Could not delete profile file {}", file(oldest.id), ex);
+            }
+        }
+    }
+    
+    /**
+     * One recording and its latest report
+     */
+    private static final class Profile {
+        private final String id;
+        private final Recording recording;
+        private final Instant startedAt;
+        private ScheduledFuture<?> stopTask;
+        private ProfileReport report;
+        
+        private Profile(String id, Recording recording, Instant startedAt) {
+            this.id = id;
+            this.recording = recording;
+            this.startedAt = startedAt;
+        }
+    }
+}
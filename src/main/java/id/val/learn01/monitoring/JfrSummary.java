@@ -0,0 +1,269 @@
+package id.val.learn01.monitoring;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads a .jfr file and aggregates it into a ProfileReport.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Events:
+ *    - jdk.ExecutionSample, jdk.ObjectAllocationSample (weight = bytes
+ *      the sample stands for), jdk.JavaMonitorEnter, jdk.ThreadPark,
+ *      jdk.SocketRead and jdk.SocketWrite; other types are only counted
+ *    - Parks of idle pool threads waiting for a task are left out, they
+ *      are not contention
+ * 
+ * 2. Attribution:
+ *    - The origin of an event is the innermost id.val.learn01 frame;
+ *      Spring proxy suffixes ($$SpringCGLIB$$0) are removed, so proxy and
+ *      target count as one class
+ *    - The site of an event is the innermost frame outside the JDK, so a
+ *      HashMap allocated by Hibernate counts as org.hibernate; hot methods
+ *      (cpu) keep the innermost frame itself
+ *    - Methods are aggregated without line numbers
+ *    - Stacks are cut at the Flight Recorder stack depth (64 frames by
+ *      default); a cut stack without an id.val.learn01 frame is counted
+ *      as truncated, see -XX:FlightRecorderOptions:stackdepth
+ * 
+ * 3. Cost:
+ *    - One streaming pass over the file with small hash maps; runs on
+ *      the profiler thread after the recording has stopped
+ */
+final class JfrSummary {
+    
+    private static final String APP_PACKAGE = "id.val.learn01.";
+    private static final String NONE = "(none)";
+    private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+    private static final int FIRST_EPHEMERAL_PORT = 32768;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+    
+    private JfrSummary() {
+    }
+    
+    /**
+     * Summarizes a finished recording
+     * @param file .jfr file
+     * @param id profile id
+     * @param startedAt recording start
+     * @param finishedAt recording end
+     * @param top entries per section
+     * @return completed report
+     * @throws IOException if the file cannot be read
+     */
+    static ProfileReport read(Path file, String id, Instant startedAt, Instant finishedAt, int top) throws IOException {
+        Map<String, Long> eventCounts = new TreeMap<>();
+        Aggregate cpu = new Aggregate("samples", 1);
+        Aggregate allocations = new Aggregate("MB", BYTES_PER_MB);
+        Aggregate monitors = new Aggregate("ms", NANOS_PER_MILLI);
+        Aggregate parks = new Aggregate("ms", NANOS_PER_MILLI);
+        Aggregate socketIo = new Aggregate("ms", NANOS_PER_MILLI);
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                String type = event.getEventType().getName();
+                eventCounts.merge(type, 1L, Long::sum);
+                switch (type) {
+                    case "jdk.ExecutionSample" -> cpu.add(event.getStackTrace(), null, 1);
+                    case "jdk.ObjectAllocationSample" -> allocations.add(event.getStackTrace(),
+                            className(event.getClass("objectClass")), event.getLong("weight"));
+                    case "jdk.JavaMonitorEnter" -> monitors.add(event.getStackTrace(),
+                            className(event.getClass("monitorClass")), event.getDuration().toNanos());
+                    case "jdk.ThreadPark" -> {
+                        if (!isIdleWorker(event.getStackTrace())) {
+                            parks.add(event.getStackTrace(),
+                                    className(event.getClass("parkedClass")), event.getDuration().toNanos());
+                        }
+                    }
+                    case "jdk.SocketRead", "jdk.SocketWrite" -> socketIo.add(event.getStackTrace(),
+                            (type.equals("jdk.SocketRead") ? "read " : "write ") + remote(event),
+                            event.getDuration().toNanos());
+                    default -> {
+                        // Counted only
+                    }
+                }
+            }
+        }
+        return new ProfileReport(id, ProfileReport.Status.COMPLETED, startedAt, finishedAt, Files.size(file), null,
+                eventCounts, cpu.section(top), allocations.section(top), monitors.section(top), parks.section(top),
+                socketIo.section(top));
+    }
+    
+    /**
+     * Remote address of a socket event; ephemeral ports (clients of this server) are left
+     * out, so all inbound connections of a client aggregate together
+     */
+    private static String remote(RecordedEvent event) {
+        String host = event.getString("host");
+        if (host == null || host.isEmpty()) {
+            host = event.getString("address");
+        }
+        int port = event.getInt("port");
+        return port >= FIRST_EPHEMERAL_PORT ? host : host + ":" + port;
+    }
+    
+    private static boolean isIdleWorker(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return false;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            RecordedMethod method = frame.getMethod();
+            String type = method.getType().getName();
+            if ((method.getName().equals("getTask") && type.endsWith("ThreadPoolExecutor"))
+                    || (method.getName().equals("awaitWork") && type.equals("java.util.concurrent.ForkJoinPool"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean isJdk(String methodName) {
+        for (String prefix : JDK_PACKAGES) {
+            if (methodName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String className(RecordedClass recordedClass) {
+        return recordedClass == null ? NONE : typeName(recordedClass.getName());
+    }
+    
+    private static String typeName(String name) {
+        int proxy = name.indexOf("$$");
+        return proxy > 0 ? name.substring(0, proxy) : name;
+    }
+    
+    private static String methodName(RecordedFrame frame) {
+        RecordedMethod method = frame.getMethod();
+        return typeName(method.getType().getName()) + "." + method.getName();
+    }
+    
+    private static String packageOf(String methodName) {
+        int method = methodName.lastIndexOf('.');
+        int type = methodName.lastIndexOf('.', method - 1);
+        return type < 0 ? NONE : methodName.substring(0, type);
+    }
+    
+    /**
+     * First two package segments, or the whole package for our own classes
+     */
+    private static String libraryOf(String methodName) {
+        String packageName = packageOf(methodName);
+        if (packageName.startsWith(APP_PACKAGE) || packageName.equals(NONE)) {
+            return packageName;
+        }
+        int first = packageName.indexOf('.');
+        int second = first < 0 ? -1 : packageName.indexOf('.', first + 1);
+        return second < 0 ? packageName : packageName.substring(0, second);
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+    
+    private static Map<String, Double> sorted(Map<String, long[]> totals, double divisor, int limit) {
+        Map<String, Double> sorted = new LinkedHashMap<>();
+        totals.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+                .limit(limit)
+                .forEach(entry -> sorted.put(entry.getKey(), round(entry.getValue()[0] / divisor)));
+        return sorted;
+    }
+    
+    /**
+     * Totals of one section
+     */
+    private static final class Aggregate {
+        private final String unit;
+        private final double divisor;
+        private final Map<Key, long[]> entries = new HashMap<>();
+        private final Map<String, long[]> byPackage = new HashMap<>();
+        private final Map<String, long[]> byLibrary = new HashMap<>();
+        private long total;
+        private long truncated;
+        
+        private Aggregate(String unit, double divisor) {
+            this.unit = unit;
+            this.divisor = divisor;
+        }
+        
+        /**
+         * @param what monitor, class or address; null to use the innermost method
+         */
+        private void add(RecordedStackTrace stackTrace, String what, long value) {
+            List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+            String innermost = null;
+            String site = null;
+            String origin = null;
+            for (RecordedFrame frame : frames) {
+                if (!frame.isJavaFrame()) {
+                    continue;
+                }
+                String method = methodName(frame);
+                if (innermost == null) {
+                    innermost = method;
+                }
+                if (site == null && !isJdk(method)) {
+                    site = method;
+                }
+                if (method.startsWith(APP_PACKAGE)) {
+                    origin = method;
+                    break;
+                }
+            }
+            if (site == null) {
+                site = innermost;
+            }
+            String name;
+            if (what == null) {
+                name = innermost == null ? NONE : innermost;
+            } else {
+                name = site == null ? what : what + " in " + site;
+            }
+            long[] stats = entries.computeIfAbsent(new Key(name, origin), key -> new long[3]);
+            stats[0] += value;
+            stats[1]++;
+            stats[2] = Math.max(stats[2], value);
+            byPackage.computeIfAbsent(origin == null ? NONE : packageOf(origin), key -> new long[1])[0] += value;
+            byLibrary.computeIfAbsent(site == null ? NONE : libraryOf(site), key -> new long[1])[0] += value;
+            total += value;
+            if (origin == null && stackTrace != null && stackTrace.isTruncated()) {
+                truncated++;
+            }
+        }
+        
+        private ProfileReport.Section section(int top) {
+            List<ProfileReport.Entry> topEntries = new ArrayList<>(Math.min(top, entries.size()));
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<Key, long[]> entry) -> entry.getValue()[0]).reversed())
+                    .limit(top)
+                    .forEach(entry -> topEntries.add(new ProfileReport.Entry(entry.getKey().name(),
+                            entry.getKey().origin(), entry.getValue()[1], round(entry.getValue()[0] / divisor),
+                            round(entry.getValue()[2] / divisor))));
+            return new ProfileReport.Section(unit, round(total / divisor), truncated, topEntries,
+                    sorted(byPackage, divisor, Integer.MAX_VALUE), sorted(byLibrary, divisor, top));
+        }
+    }
+    
+    private record Key(String name, String origin) {
+    }
+}
@@ -0,0 +1,83 @@
+package id.val.learn01.monitoring;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Actuator endpoint for on-demand Flight Recorder profiles.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Operations:
+ *    - POST /actuator/profile {"duration": "30s"}: starts a recording
+ *      (duration optional, capped by app.profiling.max-duration)
+ *    - DELETE /actuator/profile: ends the running recording early
+ *    - GET /actuator/profile: reports of the kept profiles
+ *    - GET /actuator/profile/{id}: summarized report (hot methods,
+ *      allocation sites, contended monitors, parks, socket I/O)
+ *    - GET /actuator/profile/{id}/jfr: raw recording for JDK Mission Control
+ * 
+ * 2. Usage:
+ *    - Served on the management port only, like the other admin operations;
+ *      it has no authentication and binds to 127.0.0.1 unless
+ *      management.server.address (MANAGEMENT_ADDRESS) says otherwise
+ *    - Invalid requests are 400 with the reason, unknown profiles are 404
+ */
+@Component
+@Endpoint(id = "profile")
+public class ProfileEndpoint {
+    
+    private static final String RECORDING_FILE = "jfr";
+    
+    private final FlightRecorderProfiler profiler;
+    
+    public ProfileEndpoint(FlightRecorderProfiler profiler) {
+        this.profiler = profiler;
+    }
+    
+    @ReadOperation
+    public List<ProfileReport> profiles() {
+        return profiler.recent();
+    }
+    
+    @ReadOperation
+    public ProfileReport profile(@Selector String id) {
+        return profiler.report(id);
+    }
+    
+    @ReadOperation(produces = "application/octet-stream")
+    public Resource recording(@Selector String id, @Selector String file) {
+        if (!RECORDING_FILE.equals(file)) {
+            String message = "Unknown file " + file + ", use " + RECORDING_FILE;
+            throw new InvalidEndpointRequestException(message, message);
+        }
+        Path path = profiler.recordingFile(id);
+        return path == null ? null : new FileSystemResource(path);
+    }
+    
+    @WriteOperation
+    public ProfileReport start(@Nullable Duration duration) throws IOException {
+        try {
+            return profiler.start(duration);
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+        }
+    }
+    
+    @DeleteOperation
+    public ProfileReport stop() {
+        return profiler.stop();
+    }
+}
@@ -0,0 +1,96 @@
+package id.val.learn01.monitoring;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of one Flight Recorder profile, as returned by /actuator/profile.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Sections:
+ *    - cpu: execution samples (unit "samples"); name is the running
+ *      method, origin the nearest id.val.learn01 method on the stack
+ *    - allocations: sampled allocation weight (unit "MB"); name is the
+ *      allocated class and the innermost non-JDK method allocating it
+ *    - monitors: contended synchronized blocks (unit "ms"); name is the
+ *      monitor class
+ *    - parks: threads parked on java.util.concurrent locks, pools and
+ *      queues, idle pool threads excluded (unit "ms"); name is the
+ *      blocker class
+ *    - socketIo: slow socket reads and writes (unit "ms"); name is the
+ *      remote address, e.g. the database
+ * 
+ * 2. Grouping:
+ *    - byPackage: totals by the package of the origin, so time and
+ *      allocations are charged to our code that caused them
+ *    - byLibrary: totals by the package of the innermost non-JDK frame, e.g.
+ *      com.fasterxml (Jackson) or org.hibernate, also for work that has
+ *      no id.val.learn01 frame on the stack
+ * 
+ * @param id profile id
+ * @param status RECORDING, COMPLETED or FAILED
+ * @param startedAt recording start
+ * @param finishedAt recording end, null while recording
+ * @param fileBytes size of the .jfr file, 0 while recording
+ * @param error failure reason, if FAILED
+ * @param eventCounts number of events per JFR event type
+ * @param cpu hot methods
+ * @param allocations top allocation sites
+ * @param monitors contended monitors
+ * @param parks parked threads
+ * @param socketIo slow socket operations
+ */
+public record ProfileReport(String id, Status status, Instant startedAt, Instant finishedAt, long fileBytes,
+                            String error, Map<String, Long> eventCounts, Section cpu, Section allocations,
+                            Section monitors, Section parks, Section socketIo) {
+    
+    public enum Status {
+        RECORDING, COMPLETED, FAILED
+    }
+    
+    /**
+     * Report of a profile that has not finished yet
+     * @param id profile id
+     * @param startedAt recording start
+     * @return report without sections
+     */
+    static ProfileReport recording(String id, Instant startedAt) {
+        return new ProfileReport(id, Status.RECORDING, startedAt, null, 0, null, null, null, null, null, null, null);
+    }
+    
+    /**
+     * Report of a profile that could not be recorded or read
+     * @param id profile id
+     * @param startedAt recording start
+     * @param error failure reason
+     * @return report without sections
+     */
+    static ProfileReport failed(String id, Instant startedAt, String error) {
+        return new ProfileReport(id, Status.FAILED, startedAt, Instant.now(), 0, error, null, null, null, null, null, null);
+    }
+    
+    /**
+     * One section of the report
+     * @param unit unit of total and max
+     * @param total total over all events of the section
+     * @param truncated events whose stack was cut before reaching an id.val.learn01 frame
+     * @param top largest entries, by total
+     * @param byPackage totals by id.val.learn01 package of the origin, "(none)" without one
+     * @param byLibrary totals by package of the innermost non-JDK frame
+     */
+    public record Section(String unit, double total, long truncated, List<Entry> top, Map<String, Double> byPackage,
+                          Map<String, Double> byLibrary) {
+    }
+    
+    /**
+     * One aggregated hot spot
+     * @param name what was running, allocated, locked or read
+     * @param origin nearest id.val.learn01 method on the stack, or null
+     * @param count number of events
+     * @param total sum over the events, in the unit of the section
+     * @param max largest single event, in the unit of the section
+     */
+    public record Entry(String name, String origin, long count, double total, double max) {
+    }
+}
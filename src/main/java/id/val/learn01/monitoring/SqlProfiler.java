@@ -0,0 +1,393 @@
+package id.val.learn01.monitoring;
+
+import id.val.learn01.config.SqlProfilerProperties;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC statement profiler fed by the datasource-proxy listeners.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Aggregates count, latency and rows per normalized statement
+ *    - Aggregates statements per request for each controller method
+ *    - Detects identical statements repeated within one request (N+1)
+ *    - Writes a sampled, rate-limited slow-query log
+ * 
+ * 2. Normalization:
+ *    - Literals become ?, IN lists collapse to (?...), whitespace is folded
+ *    - Results are memoized, so the regex work is paid once per raw SQL
+ * 
+ * 3. Request Scope:
+ *    - SqlProfilingInterceptor calls beginRequest/endRequest around handlers
+ *    - Statements outside a request are attributed to "background"
+ *    - forkRequest() continues a request on worker threads (shard
+ *      scatter-gather); each worker counts on its own state, which the
+ *      calling thread merges back before the request ends
+ * 
+ * 4. Cost:
+ *    - Per statement: two nanoTime calls, a map lookup and a few LongAdders
+ *    - Nothing is logged unless a statement is slow or repeated; the two
+ *      logs have their own per-second limits
+ */
+@Component
+public class SqlProfiler implements QueryExecutionListener, MethodExecutionListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SqlProfiler.class);
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("id.val.learn01.sql.slow");
+    
+    private static final String BACKGROUND = "background";
+    private static final String OTHER = "<other statements>";
+    private static final int MAX_NORMALIZED_CACHE = 10_000;
+    
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    private final SqlProfilerProperties properties;
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, OriginStats> origins = new ConcurrentHashMap<>();
+    private final Map<String, String> normalizedCache = new ConcurrentHashMap<>();
+    private final ThreadLocal<RequestState> requestState = ThreadLocal.withInitial(RequestState::new);
+    private final Bucket slowLogBucket;
+    private final Bucket repeatedLogBucket;
+    private final LongAdder suppressedSlowLogs = new LongAdder();
+    private final long slowThresholdNanos;
+    
+    public SqlProfiler(SqlProfilerProperties properties) {
+        this.properties = properties;
+        this.slowThresholdNanos = properties.getSlowQueryThreshold().toNanos();
+        this.slowLogBucket = logBucket(properties.getSlowQueryLogPerSecond());
+        this.repeatedLogBucket = logBucket(properties.getRepeatedStatementLogPerSecond());
+    }
+    
+    /**
+     * Marks the start of a request on the current thread
+     * @param origin controller method handling the request, e.g. "UserController.deleteUser"
+     */
+    public void beginRequest(String origin) {
+        RequestState state = requestState.get();
+        state.reset();
+        state.origin = origin;
+    }
+    
+    /**
+     * Closes the request on the current thread and checks for repeated statements
+     */
+    public void endRequest() {
+        RequestState state = requestState.get();
+        if (state.origin == null) {
+            return;
+        }
+        OriginStats originStats = origins.computeIfAbsent(state.origin, OriginStats::new);
+        originStats.requests.increment();
+        originStats.statements.add(state.statementCount);
+        originStats.sqlNanos.add(state.sqlNanos);
+        
+        int threshold = properties.getRepeatedStatementThreshold();
+        for (Map.Entry<StatementStats, int[]> entry : state.counts.entrySet()) {
+            int executions = entry.getValue()[0];
+            if (executions >= threshold) {
+                entry.getKey().getRepeatedInRequest().increment();
+                originStats.repeatedStatements.increment();
+                if (repeatedLogBucket.tryConsume(1)) {
+                    logger.warn("Statement executed {} times in one request to {} (possible N+1): {}",
+                            executions, state.origin, entry.getKey().getSql());
+                }
+            }
+        }
+        state.reset();
+    }
+    
+    /**
+     * Captures the request of the current thread so worker threads can run statements for it
+     * @return fork of the request, or null outside a request
+     */
+    public RequestFork forkRequest() {
+        RequestState state = requestState.get();
+        return state.origin == null ? null : new RequestFork(state);
+    }
+    
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        requestState.get().queryStartNanos = System.nanoTime();
+    }
+    
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestState state = requestState.get();
+        long elapsed = System.nanoTime() - state.queryStartNanos;
+        long perQuery = queryInfoList.isEmpty() ? elapsed : elapsed / queryInfoList.size();
+        StatementStats last = null;
+        for (QueryInfo queryInfo : queryInfoList) {
+            StatementStats stats = statementStats(normalize(queryInfo.getQuery()));
+            stats.record(perQuery, execInfo.isSuccess());
+            if (state.origin != null) {
+                state.counts.computeIfAbsent(stats, s -> new int[1])[0]++;
+            }
+            last = stats;
+        }
+        if (last != null) {
+            last.getRows().add(updatedRows(execInfo.getResult()));
+        }
+        state.lastStatement = last;
+        state.statementCount += queryInfoList.size();
+        state.sqlNanos += elapsed;
+        
+        if (elapsed >= slowThresholdNanos && last != null) {
+            logSlowQuery(state, last, elapsed);
+        }
+    }
+    
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+    
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && Boolean.TRUE.equals(executionContext.getResult())
+                && "next".equals(executionContext.getMethod().getName())) {
+            StatementStats last = requestState.get().lastStatement;
+            if (last != null) {
+                last.getRows().increment();
+            }
+        }
+    }
+    
+    /**
+     * Statement aggregates ordered by total time, most expensive first
+     * @return one map per statement
+     */
+    public List<Map<String, Object>> statementSnapshot() {
+        List<StatementStats> sorted = new ArrayList<>(statements.values());
+        sorted.sort(Comparator.comparingLong((StatementStats s) -> s.getTotalNanos().sum()).reversed());
+        List<Map<String, Object>> snapshot = new ArrayList<>(sorted.size());
+        for (StatementStats stats : sorted) {
+            long count = stats.getCount().sum();
+            long total = stats.getTotalNanos().sum();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("sql", stats.getSql());
+            entry.put("count", count);
+            entry.put("totalMs", toMillis(total));
+            entry.put("avgMs", count == 0 ? 0.0 : toMillis(total / count));
+            entry.put("maxMs", toMillis(stats.getMaxNanos().get()));
+            entry.put("rows", stats.getRows().sum());
+            entry.put("errors", stats.getErrors().sum());
+            entry.put("repeatedInRequest", stats.getRepeatedInRequest().sum());
+            snapshot.add(entry);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Per controller method aggregates, e.g. statements per request
+     * @return one map per controller method
+     */
+    public List<Map<String, Object>> originSnapshot() {
+        List<Map<String, Object>> snapshot = new ArrayList<>();
+        for (OriginStats stats : origins.values()) {
+            long requests = stats.requests.sum();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("origin", stats.origin);
+            entry.put("requests", requests);
+            entry.put("statementsPerRequest", requests == 0 ? 0.0 : (double) stats.statements.sum() / requests);
+            entry.put("sqlMsPerRequest", requests == 0 ? 0.0 : toMillis(stats.sqlNanos.sum() / requests));
+            entry.put("repeatedStatements", stats.repeatedStatements.sum());
+            snapshot.add(entry);
+        }
+        snapshot.sort(Comparator.comparing(entry -> (String) entry.get("origin")));
+        return snapshot;
+    }
+    
+    /**
+     * Number of slow queries not logged because of sampling or rate limiting
+     * @return suppressed slow-query log lines
+     */
+    public long getSuppressedSlowLogs() {
+        return suppressedSlowLogs.sum();
+    }
+    
+    /**
+     * Clears all aggregates
+     */
+    public void reset() {
+        statements.clear();
+        origins.clear();
+        suppressedSlowLogs.reset();
+    }
+    
+    /**
+     * Normalizes a SQL string so executions with different literals aggregate together
+     * @param sql raw SQL
+     * @return normalized SQL
+     */
+    String normalize(String sql) {
+        String normalized = normalizedCache.get(sql);
+        if (normalized != null) {
+            return normalized;
+        }
+        normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?...)");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        if (normalizedCache.size() < MAX_NORMALIZED_CACHE) {
+            normalizedCache.put(sql, normalized);
+        }
+        return normalized;
+    }
+    
+    private StatementStats statementStats(String sql) {
+        StatementStats stats = statements.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        if (statements.size() >= properties.getMaxStatements()) {
+            return statements.computeIfAbsent(OTHER, StatementStats::new);
+        }
+        return statements.computeIfAbsent(sql, StatementStats::new);
+    }
+    
+    private void logSlowQuery(RequestState state, StatementStats stats, long elapsed) {
+        double sampleRate = properties.getSlowQuerySampleRate();
+        if ((sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)
+                || !slowLogBucket.tryConsume(1)) {
+            suppressedSlowLogs.increment();
+            return;
+        }
+        slowQueryLog.warn("Slow query {} ms from {}: {}",
+                String.format("%.1f", toMillis(elapsed)), state.origin == null ? BACKGROUND : state.origin, stats.getSql());
+    }
+    
+    private static long updatedRows(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return 0;
+    }
+    
+    private static Bucket logBucket(int perSecond) {
+        return Bucket4j.builder()
+                .addLimit(Bandwidth.simple(Math.max(perSecond, 1), Duration.ofSeconds(1)))
+                .build();
+    }
+    
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    
+    /**
+     * Per-thread state of the request currently being handled
+     */
+    private static final class RequestState {
+        private String origin;
+        private final Map<StatementStats, int[]> counts = new HashMap<>();
+        private int statementCount;
+        private long sqlNanos;
+        private long queryStartNanos;
+        private StatementStats lastStatement;
+        
+        private void reset() {
+            origin = null;
+            counts.clear();
+            statementCount = 0;
+            sqlNanos = 0;
+            lastStatement = null;
+        }
+        
+        private void merge(RequestState other) {
+            other.counts.forEach((stats, count) -> counts.computeIfAbsent(stats, s -> new int[1])[0] += count[0]);
+            statementCount += other.statementCount;
+            sqlNanos += other.sqlNanos;
+        }
+    }
+    
+    /**
+     * A request continued on worker threads
+     */
+    public final class RequestFork {
+        private final RequestState caller;
+        private final List<RequestState> finished = new ArrayList<>();
+        
+        private RequestFork(RequestState caller) {
+            this.caller = caller;
+        }
+        
+        /**
+         * Runs work on the current worker thread as part of the request
+         * @param work work issuing statements
+         * @return result of the work
+         */
+        public <T> T run(Supplier<T> work) {
+            RequestState previous = requestState.get();
+            RequestState state = new RequestState();
+            state.origin = caller.origin;
+            requestState.set(state);
+            try {
+                return work.get();
+            } finally {
+                requestState.set(previous);
+                synchronized (finished) {
+                    finished.add(state);
+                }
+            }
+        }
+        
+        /**
+         * Adds the statements of the finished workers to the request; call on the thread that forked it
+         */
+        public void join() {
+            synchronized (finished) {
+                finished.forEach(caller::merge);
+                finished.clear();
+            }
+        }
+    }
+    
+    /**
+     * Aggregates per controller method
+     */
+    private static final class OriginStats {
+        private final String origin;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder sqlNanos = new LongAdder();
+        private final LongAdder repeatedStatements = new LongAdder();
+        
+        private OriginStats(String origin) {
+            this.origin = origin;
+        }
+    }
+}
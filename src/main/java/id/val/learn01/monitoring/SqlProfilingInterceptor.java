@@ -0,0 +1,45 @@
+package id.val.learn01.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Interceptor that scopes SQL profiling to one request.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Tells SqlProfiler which controller method issued the statements
+ *    - Closes the request scope so repeated statements are detected
+ * 
+ * 2. Async Requests:
+ *    - The scope also ends when async handling starts, because the
+ *      remaining work runs on another thread
+ */
+@Component
+public class SqlProfilingInterceptor implements AsyncHandlerInterceptor {
+    
+    @Autowired
+    private SqlProfiler sqlProfiler;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            sqlProfiler.beginRequest(handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName());
+        }
+        return true;
+    }
+    
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        sqlProfiler.endRequest();
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        sqlProfiler.endRequest();
+    }
+}
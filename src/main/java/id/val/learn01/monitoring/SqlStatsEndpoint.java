@@ -0,0 +1,47 @@
+package id.val.learn01.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the SQL profiler aggregates.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Operations:
+ *    - GET /actuator/sqlstats: statements by total time and per-endpoint
+ *      statements per request
+ *    - DELETE /actuator/sqlstats: resets the aggregates
+ * 
+ * 2. Usage:
+ *    - Served on the management port only
+ *    - Compare statementsPerRequest between builds to spot extra queries
+ */
+@Component
+@Endpoint(id = "sqlstats")
+public class SqlStatsEndpoint {
+    
+    private final SqlProfiler sqlProfiler;
+    
+    public SqlStatsEndpoint(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> sqlStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("endpoints", sqlProfiler.originSnapshot());
+        stats.put("statements", sqlProfiler.statementSnapshot());
+        stats.put("suppressedSlowQueryLogs", sqlProfiler.getSuppressedSlowLogs());
+        return stats;
+    }
+    
+    @DeleteOperation
+    public void reset() {
+        sqlProfiler.reset();
+    }
+}
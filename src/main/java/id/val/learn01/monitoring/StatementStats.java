@@ -0,0 +1,47 @@
+package id.val.learn01.monitoring;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated statistics of one normalized SQL statement.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Counts executions, total/max latency and rows
+ *    - Counts requests that executed it repeatedly (N+1 suspects)
+ * 
+ * 2. Thread Safety:
+ *    - LongAdder/LongAccumulator keep recording contention-free
+ */
+@Getter
+public class StatementStats {
+    
+    private final String sql;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder repeatedInRequest = new LongAdder();
+    
+    public StatementStats(String sql) {
+        this.sql = sql;
+    }
+    
+    /**
+     * Records one execution
+     * @param nanos elapsed time in nanoseconds
+     * @param success whether the statement succeeded
+     */
+    public void record(long nanos, boolean success) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (!success) {
+            errors.increment();
+        }
+    }
+}
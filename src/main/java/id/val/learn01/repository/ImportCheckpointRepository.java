@@ -0,0 +1,35 @@
+package id.val.learn01.repository;
+
+import id.val.learn01.model.ImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for bulk import checkpoints.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Interface Function:
+ *    - Reads and writes import_checkpoints on the shard selected by
+ *      ShardTemplate
+ */
+@Repository
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, Long> {
+    
+    /**
+     * Reads the checkpoints of a job on the current shard
+     * @param jobId import job id
+     * @return committed chunks of this shard
+     */
+    List<ImportCheckpoint> findByJobId(String jobId);
+    
+    /**
+     * Whether a part of a chunk of a job was committed on the current shard
+     * @param jobId import job id
+     * @param chunk chunk index
+     * @param part part index within the chunk
+     * @return true if the checkpoint exists
+     */
+    boolean existsByJobIdAndChunkAndPart(String jobId, Integer chunk, Integer part);
+}
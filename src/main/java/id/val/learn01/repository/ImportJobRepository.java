@@ -0,0 +1,26 @@
+package id.val.learn01.repository;
+
+import id.val.learn01.model.ImportJob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for bulk import jobs.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Interface Function:
+ *    - Reads and writes import_jobs; UserImporter keeps them on shard 0
+ */
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+    
+    /**
+     * Reads the most recent jobs
+     * @param limit maximum number of jobs
+     * @return jobs, newest first
+     */
+    List<ImportJob> findByOrderByStartedAtDesc(Limit limit);
+}
@@ -0,0 +1,75 @@
+package id.val.learn01.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes rows with multi-row INSERT statements.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - INSERT INTO t (a, b) VALUES (?, ?), (?, ?), ... with up to
+ *      batchSize rows per statement, one round trip per statement
+ *    - Supported by MySQL and H2 without driver options
+ *      (rewriteBatchedStatements is not needed)
+ * 
+ * 2. Usage:
+ *    - Runs on the JdbcTemplate connection, so inside ShardTemplate.inShard
+ *      it joins the shard transaction of the JPA writes
+ */
+public final class MultiRowInsert {
+    
+    private MultiRowInsert() {
+    }
+    
+    /**
+     * Inserts rows in statements of at most batchSize rows
+     * @param jdbcTemplate template of the shard data source
+     * @param table table name
+     * @param columns column names
+     * @param rows rows to insert
+     * @param batchSize maximum rows per statement
+     * @param values column values of a row, in column order
+     * @param <T> row type
+     * @return number of inserted rows
+     */
+    public static <T> int insert(JdbcTemplate jdbcTemplate, String table, List<String> columns, List<T> rows,
+                                 int batchSize, Function<T, Object[]> values) {
+        int inserted = 0;
+        String fullBatchSql = null;
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            int count = Math.min(batchSize, rows.size() - from);
+            String sql;
+            if (count == batchSize) {
+                if (fullBatchSql == null) {
+                    fullBatchSql = sql(table, columns, batchSize);
+                }
+                sql = fullBatchSql;
+            } else {
+                sql = sql(table, columns, count);
+            }
+            Object[] args = new Object[count * columns.size()];
+            for (int row = 0; row < count; row++) {
+                System.arraycopy(values.apply(rows.get(from + row)), 0, args, row * columns.size(), columns.size());
+            }
+            inserted += jdbcTemplate.update(sql, args);
+        }
+        return inserted;
+    }
+    
+    private static String sql(String table, List<String> columns, int rows) {
+        String placeholders = "(" + "?, ".repeat(columns.size() - 1) + "?)";
+        StringBuilder sql = new StringBuilder(32 + rows * (placeholders.length() + 2))
+                .append("INSERT INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append(placeholders);
+        }
+        return sql.toString();
+    }
+}
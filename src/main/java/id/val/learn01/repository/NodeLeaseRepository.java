@@ -0,0 +1,58 @@
+package id.val.learn01.repository;
+
+import id.val.learn01.model.NodeLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * Repository for node id leases.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Interface Function:
+ *    - Reads and writes node_leases on shard 0, through NodeIdLease
+ *    - Every change is a single conditional statement, so two instances
+ *      racing for the same node id cannot both win
+ */
+@Repository
+public interface NodeLeaseRepository extends JpaRepository<NodeLease, Integer> {
+    
+    /**
+     * Takes over a lease that expired or that this instance already holds
+     * @param nodeId node id
+     * @param owner instance id of the caller
+     * @param expiresAt new end of the lease
+     * @param now current time
+     * @return 1 if the lease is now held by the caller, 0 otherwise
+     */
+    @Modifying
+    @Query("update NodeLease l set l.owner = :owner, l.expiresAt = :expiresAt "
+            + "where l.nodeId = :nodeId and (l.owner = :owner or l.expiresAt < :now)")
+    int takeOver(@Param("nodeId") int nodeId, @Param("owner") String owner,
+                 @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+    
+    /**
+     * Extends a lease held by the caller
+     * @param nodeId node id
+     * @param owner instance id of the caller
+     * @param expiresAt new end of the lease
+     * @return 1 if renewed, 0 if the lease was taken over or deleted
+     */
+    @Modifying
+    @Query("update NodeLease l set l.expiresAt = :expiresAt where l.nodeId = :nodeId and l.owner = :owner")
+    int renew(@Param("nodeId") int nodeId, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+    
+    /**
+     * Deletes a lease held by the caller
+     * @param nodeId node id
+     * @param owner instance id of the caller
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query("delete from NodeLease l where l.nodeId = :nodeId and l.owner = :owner")
+    int release(@Param("nodeId") int nodeId, @Param("owner") String owner);
+}
@@ -0,0 +1,549 @@
+package id.val.learn01.repository;
+
+import id.val.learn01.changelog.ChangeLog;
+import id.val.learn01.config.ShardingProperties;
+import id.val.learn01.exception.ResourceNotFoundException;
+import id.val.learn01.model.User;
+import id.val.learn01.model.UserChange;
+import id.val.learn01.model.UserEmail;
+import id.val.learn01.query.UserQuery;
+import id.val.learn01.sharding.KWayMerge;
+import id.val.learn01.sharding.ShardRouter;
+import id.val.learn01.sharding.ShardTemplate;
+import id.val.learn01.sharding.ShardedIdGenerator;
+import jakarta.persistence.criteria.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Shard-aware access to users, built on UserRepository and UserEmailRepository.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - findById(): routed to the single shard encoded in the id
+ *    - findByEmail(): natural-id lookup, answered from the Hibernate
+ *      second-level cache when possible
+ *    - findAll(), search(), export(): scatter-gather across all shards
+ *      in parallel, then an ordered k-way merge
+ *    - findAllById(), findVersions(), findAllVersions(): bulk reads for
+ *      cache snapshot validation, grouped by shard
+ *    - insert(), update(), delete(): keep users and the email lookup
+ *      table (user_emails) consistent without cross-shard transactions
+ *    - insertAll(): bulk insert of one shard's users with multi-row
+ *      statements (users, user_emails and user_changes)
+ * 
+ * 2. Email Uniqueness:
+ *    - A new user gets a bucket from its email hash, so the user row and
+ *      its lookup row are inserted in one transaction on one shard
+ *    - Changing the email claims the new address first (on its own shard),
+ *      then updates the user, then releases the old address; a failed
+ *      update releases the new claim again
+ * 
+ * 3. Pagination:
+ *    - Each shard returns its first (page + 1) * size rows in the
+ *      requested order; the merge skips page * size and keeps size
+ *    - The window is capped by app.sharding.max-result-window
+ *    - Name and email order is case-insensitive, as in MySQL
+ * 
+ * 4. Export:
+ *    - Per-shard keyset cursors (id > last, batch of export-batch-size),
+ *      each batch in its own short read-only transaction, merged by id
+ * 
+ * 5. Lookup By Email:
+ *    - The natural-id and entity caches are global (ids are unique across
+ *      shards), so a cached email resolves without touching any shard
+ *    - On a miss the email's own shard is asked first: a user stays on
+ *      the shard of the email it was created with
+ *    - If that fails (email changed since, different casing, or a cached
+ *      resolution made stale by another instance), the user_emails row
+ *      gives the id and the lookup is repeated on the user's shard
+ *    - The result must match the requested email key; stale entries are
+ *      never returned
+ * 
+ * 6. Change Log:
+ *    - Every insert, update and delete appends a user_changes row in the
+ *      same shard transaction as the user row (ChangeLog)
+ * 
+ * 7. Exceptions:
+ *    - A @Component rather than a @Repository, so IllegalArgumentException
+ *      reaches GlobalExceptionHandler as a 400 instead of being translated
+ *      into a DataAccessException; the JPA repositories below still translate
+ */
+@Component
+public class ShardedUserRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ShardedUserRepository.class);
+    private static final Set<String> SORTABLE = Set.of("id", "name", "email");
+    
+    private final UserRepository userRepository;
+    private final UserEmailRepository userEmailRepository;
+    private final ShardTemplate shardTemplate;
+    private final ShardRouter shardRouter;
+    private final ShardedIdGenerator idGenerator;
+    private final ShardingProperties properties;
+    private final ChangeLog changeLog;
+    private final JdbcTemplate jdbcTemplate;
+    
+    public ShardedUserRepository(UserRepository userRepository, UserEmailRepository userEmailRepository,
+                                 ShardTemplate shardTemplate, ShardRouter shardRouter,
+                                 ShardedIdGenerator idGenerator, ShardingProperties properties,
+                                 ChangeLog changeLog, JdbcTemplate jdbcTemplate) {
+        this.userRepository = userRepository;
+        this.userEmailRepository = userEmailRepository;
+        this.shardTemplate = shardTemplate;
+        this.shardRouter = shardRouter;
+        this.idGenerator = idGenerator;
+        this.properties = properties;
+        this.changeLog = changeLog;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Finds a user on the shard encoded in its id
+     * @param id user id
+     * @return the user, if present
+     */
+    public Optional<User> findById(long id) {
+        return shardTemplate.inShard(shardRouter.shardOf(id), true, () -> userRepository.findById(id));
+    }
+    
+    /**
+     * Finds a user by email, case-insensitively like the user_emails lookup table
+     * @param email email address
+     * @return the user, if present
+     */
+    public Optional<User> findByEmail(String email) {
+        String emailKey = ShardRouter.emailKey(email);
+        int shard = shardRouter.shardOfEmail(emailKey);
+        Optional<User> user = shardTemplate.onShard(shard, () -> userRepository.findByEmail(email))
+                .filter(found -> hasEmailKey(found, emailKey));
+        if (user.isPresent()) {
+            return user;
+        }
+        Optional<UserEmail> claim = shardTemplate.inShard(shard, true, () -> userEmailRepository.findById(emailKey));
+        if (claim.isEmpty()) {
+            return Optional.empty();
+        }
+        long id = claim.get().getUserId();
+        // The natural-id lookup caches the resolution for the next call; by id covers other casings
+        return shardTemplate.onShard(shardRouter.shardOf(id), () -> userRepository.findByEmail(email))
+                .filter(found -> hasEmailKey(found, emailKey))
+                .or(() -> findById(id).filter(found -> hasEmailKey(found, emailKey)));
+    }
+    
+    /**
+     * Reads all users from all shards
+     * @return users ordered by id
+     */
+    public List<User> findAll() {
+        List<List<User>> perShard = shardTemplate.scatter(true, shard -> userRepository.findAll(Sort.by("id")));
+        return mergeAll(perShard, Comparator.comparing(User::getId));
+    }
+    
+    /**
+     * Reads the given users, each from its own shard
+     * @param ids user ids
+     * @return the users that exist, in no particular order
+     */
+    public List<User> findAllById(Collection<Long> ids) {
+        List<List<Long>> idsByShard = groupByShard(ids);
+        List<List<User>> perShard = shardTemplate.scatter(true, shard -> idsByShard.get(shard).isEmpty()
+                ? List.of()
+                : userRepository.findAllById(idsByShard.get(shard)));
+        List<User> users = new ArrayList<>(ids.size());
+        perShard.forEach(users::addAll);
+        return users;
+    }
+    
+    /**
+     * Reads the current versions of the given users
+     * @param ids user ids
+     * @return version by id for the users that still exist
+     */
+    public Map<Long, Long> findVersions(Collection<Long> ids) {
+        List<List<Long>> idsByShard = groupByShard(ids);
+        List<List<UserVersion>> perShard = shardTemplate.scatter(true, shard -> idsByShard.get(shard).isEmpty()
+                ? List.of()
+                : userRepository.findByIdIn(idsByShard.get(shard)));
+        return toVersionMap(perShard, ids.size());
+    }
+    
+    /**
+     * Reads the versions of all users on all shards
+     * @return version by id
+     */
+    public Map<Long, Long> findAllVersions() {
+        return toVersionMap(shardTemplate.scatter(true, shard -> userRepository.findAllProjectedBy()), 16);
+    }
+    
+    /**
+     * Searches users by id, name and email fragments with sorting and paging
+     * @param query search parameters
+     * @return requested page with the total over all shards
+     * @throws IllegalArgumentException if sorting or paging parameters are invalid
+     */
+    public Page<User> search(UserQuery query) {
+        int page = query.getPage() == null ? 0 : query.getPage();
+        int size = query.getSize() == null ? 10 : query.getSize();
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Page must be >= 0 and size must be >= 1");
+        }
+        long window = (long) (page + 1) * size;
+        if (window > properties.getMaxResultWindow()) {
+            throw new IllegalArgumentException("(page + 1) * size must not exceed " + properties.getMaxResultWindow());
+        }
+        String sortBy = query.getSortBy() == null ? "id" : query.getSortBy();
+        if (!SORTABLE.contains(sortBy)) {
+            throw new IllegalArgumentException("Cannot sort by " + sortBy + ", use one of " + SORTABLE);
+        }
+        Sort.Direction direction = Sort.Direction.fromString(query.getSortDirection() == null ? "ASC" : query.getSortDirection());
+        Sort sort = "id".equals(sortBy) ? Sort.by(direction, "id") : Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+        
+        Specification<User> specification = specification(query);
+        PageRequest shardPage = PageRequest.of(0, (int) window, sort);
+        List<Page<User>> perShard;
+        if (query.getId() != null) {
+            int shard = shardRouter.shardOf(query.getId());
+            perShard = List.of(shardTemplate.inShard(shard, true, () -> userRepository.findAll(specification, shardPage)));
+        } else {
+            perShard = shardTemplate.scatter(true, shard -> userRepository.findAll(specification, shardPage));
+        }
+        
+        long total = 0;
+        List<Iterator<User>> inputs = new ArrayList<>(perShard.size());
+        for (Page<User> result : perShard) {
+            total += result.getTotalElements();
+            inputs.add(result.getContent().iterator());
+        }
+        Iterator<User> merged = KWayMerge.merge(inputs, comparator(sortBy, direction));
+        List<User> content = new ArrayList<>(size);
+        for (long skipped = 0; merged.hasNext() && skipped < (long) page * size; skipped++) {
+            merged.next();
+        }
+        while (merged.hasNext() && content.size() < size) {
+            content.add(merged.next());
+        }
+        return new PageImpl<>(content, PageRequest.of(page, size, sort), total);
+    }
+    
+    /**
+     * Streams all users from all shards in id order, one batch per shard at a time
+     * @return lazy iterator over all users
+     */
+    public Iterator<User> export() {
+        int batchSize = properties.getExportBatchSize();
+        List<List<User>> firstBatches = shardTemplate.scatter(true,
+                shard -> userRepository.findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, Limit.of(batchSize)));
+        List<Iterator<User>> cursors = new ArrayList<>(firstBatches.size());
+        for (int shard = 0; shard < firstBatches.size(); shard++) {
+            cursors.add(new ShardCursor(shard, firstBatches.get(shard), batchSize));
+        }
+        return KWayMerge.merge(cursors, Comparator.comparing(User::getId));
+    }
+    
+    /**
+     * Inserts a new user and claims its email
+     * @param user user without id; the id is assigned here
+     * @return the inserted user
+     * @throws IllegalArgumentException if the email is already registered
+     */
+    public User insert(User user) {
+        String emailKey = ShardRouter.emailKey(user.getEmail());
+        long id = idGenerator.nextId(shardRouter.bucketOfEmail(user.getEmail()));
+        user.setId(id);
+        // Same bucket, same shard: the lookup row and the user commit together
+        return shardTemplate.inShard(shardRouter.shardOf(id), false, () -> {
+            claimEmail(emailKey, id);
+            User inserted = userRepository.insert(user);
+            changeLog.append(inserted, UserChange.Type.CREATED);
+            return inserted;
+        });
+    }
+    
+    /**
+     * Inserts new users of one shard with multi-row statements in one shard transaction.
+     * Users whose email is already registered, or repeated in the list, are skipped.
+     * @param shard shard of every email in the list
+     * @param users users without id; ids and version 0 are assigned here
+     * @param batchSize rows per statement
+     * @param beforeCommit called in the same transaction with the skipped users, e.g. to write a checkpoint
+     * @return the inserted users
+     * @throws IllegalArgumentException if an email belongs to another shard
+     */
+    public List<User> insertAll(int shard, List<User> users, int batchSize, Consumer<List<User>> beforeCommit) {
+        return shardTemplate.inShard(shard, false, () -> {
+            Map<String, User> byKey = new LinkedHashMap<>(Math.max(16, users.size() * 4 / 3 + 1));
+            List<User> skipped = new ArrayList<>();
+            for (User user : users) {
+                String emailKey = ShardRouter.emailKey(user.getEmail());
+                if (shardRouter.shardOfEmail(emailKey) != shard) {
+                    throw new IllegalArgumentException("Email " + emailKey + " does not belong to shard " + shard);
+                }
+                if (byKey.putIfAbsent(emailKey, user) != null) {
+                    skipped.add(user);
+                }
+            }
+            Set<String> registered = registeredEmails(new ArrayList<>(byKey.keySet()), batchSize);
+            List<User> inserted = new ArrayList<>(byKey.size());
+            for (Map.Entry<String, User> entry : byKey.entrySet()) {
+                User user = entry.getValue();
+                if (registered.contains(entry.getKey())) {
+                    skipped.add(user);
+                    continue;
+                }
+                user.setId(idGenerator.nextId(shardRouter.bucketOfEmail(entry.getKey())));
+                user.setVersion(0L);
+                inserted.add(user);
+            }
+            // Lookup rows first: a concurrent claim of the same email fails here, before any user row
+            MultiRowInsert.insert(jdbcTemplate, "user_emails", List.of("email", "user_id"), inserted, batchSize,
+                    user -> new Object[]{ShardRouter.emailKey(user.getEmail()), user.getId()});
+            MultiRowInsert.insert(jdbcTemplate, "users", List.of("id", "name", "email", "version"), inserted, batchSize,
+                    user -> new Object[]{user.getId(), user.getName(), user.getEmail(), user.getVersion()});
+            changeLog.appendAll(inserted, UserChange.Type.CREATED, batchSize);
+            beforeCommit.accept(skipped);
+            return inserted;
+        });
+    }
+    
+    /**
+     * Updates name and email of a user, moving the email claim if the email changed
+     * @param id user id
+     * @param name new name
+     * @param email new email
+     * @return the updated user
+     * @throws ResourceNotFoundException if the user does not exist
+     * @throws IllegalArgumentException if the new email is already registered
+     */
+    public User update(long id, String name, String email) {
+        int shard = shardRouter.shardOf(id);
+        User current = findById(id).orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+        String oldKey = ShardRouter.emailKey(current.getEmail());
+        String newKey = ShardRouter.emailKey(email);
+        boolean emailChanged = !oldKey.equals(newKey);
+        
+        if (emailChanged) {
+            shardTemplate.inShard(shardRouter.shardOfEmail(newKey), false, () -> claimEmail(newKey, id));
+        }
+        User updated;
+        try {
+            updated = shardTemplate.inShard(shard, false, () -> {
+                User user = userRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+                if (name.equals(user.getName()) && email.equals(user.getEmail())) {
+                    return user;
+                }
+                user.setName(name);
+                user.setEmail(email);
+                // Flush first, so the logged version is the one being committed
+                userRepository.flush();
+                changeLog.append(user, UserChange.Type.UPDATED);
+                return user;
+            });
+        } catch (RuntimeException ex) {
+            if (emailChanged) {
+                releaseEmail(newKey, id);
+            }
+            throw ex;
+        }
+        if (emailChanged) {
+            releaseEmail(oldKey, id);
+        }
+        return updated;
+    }
+    
+    /**
+     * Deletes a user and releases its email
+     * @param id user id
+     * @throws ResourceNotFoundException if the user does not exist
+     */
+    public void delete(long id) {
+        User deleted = shardTemplate.inShard(shardRouter.shardOf(id), false, () -> {
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+            userRepository.delete(user);
+            changeLog.append(user, UserChange.Type.DELETED);
+            return user;
+        });
+        releaseEmail(ShardRouter.emailKey(deleted.getEmail()), id);
+    }
+    
+    /**
+     * Inserts the lookup row of an email; runs in the caller's shard transaction.
+     * The row is flushed here, so a concurrent claim of the same email that passed
+     * the existence check fails on the primary key as the same 400, not at commit.
+     */
+    private UserEmail claimEmail(String emailKey, long userId) {
+        if (userEmailRepository.existsById(emailKey)) {
+            throw new IllegalArgumentException("Email is already registered: " + emailKey);
+        }
+        try {
+            return userEmailRepository.saveAndFlush(new UserEmail(emailKey, userId));
+        } catch (DataIntegrityViolationException ex) {
+            throw new IllegalArgumentException("Email is already registered: " + emailKey, ex);
+        }
+    }
+    
+    /**
+     * Deletes the lookup row of an email if it still belongs to the user.
+     * Failures leave a stale claim that blocks the address; they are logged, not thrown,
+     * because the user change itself has already committed.
+     */
+    private void releaseEmail(String emailKey, long userId) {
+        try {
+            shardTemplate.inShard(shardRouter.shardOfEmail(emailKey), false, () -> {
+                userEmailRepository.findById(emailKey)
+                        .filter(claim -> claim.getUserId() == userId)
+                        .ifPresent(userEmailRepository::delete);
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            logger.warn("Could not release email claim {} of user {}", emailKey, userId, ex);
+        }
+    }
+    
+    /**
+     * Emails of the list that already have a lookup row on the current shard
+     */
+    private Set<String> registeredEmails(List<String> emailKeys, int batchSize) {
+        Set<String> registered = new HashSet<>();
+        for (int from = 0; from < emailKeys.size(); from += batchSize) {
+            List<String> batch = emailKeys.subList(from, Math.min(from + batchSize, emailKeys.size()));
+            String sql = "SELECT email FROM user_emails WHERE email IN (" + "?, ".repeat(batch.size() - 1) + "?)";
+            registered.addAll(jdbcTemplate.queryForList(sql, String.class, batch.toArray()));
+        }
+        return registered;
+    }
+    
+    private static boolean hasEmailKey(User user, String emailKey) {
+        return ShardRouter.emailKey(user.getEmail()).equals(emailKey);
+    }
+    
+    private List<List<Long>> groupByShard(Collection<Long> ids) {
+        List<List<Long>> idsByShard = new ArrayList<>(shardRouter.getShardCount());
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            idsByShard.add(new ArrayList<>());
+        }
+        for (Long id : ids) {
+            idsByShard.get(shardRouter.shardOf(id)).add(id);
+        }
+        return idsByShard;
+    }
+    
+    private static Map<Long, Long> toVersionMap(List<List<UserVersion>> perShard, int expectedSize) {
+        Map<Long, Long> versions = new HashMap<>(Math.max(16, expectedSize * 4 / 3 + 1));
+        for (List<UserVersion> shardResult : perShard) {
+            for (UserVersion version : shardResult) {
+                versions.put(version.getId(), version.getVersion());
+            }
+        }
+        return versions;
+    }
+    
+    private static Specification<User> specification(UserQuery query) {
+        return (root, criteriaQuery, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (query.getId() != null) {
+                predicates.add(builder.equal(root.get("id"), query.getId()));
+            }
+            if (query.getName() != null && !query.getName().isBlank()) {
+                predicates.add(builder.like(builder.lower(root.get("name")), like(query.getName())));
+            }
+            if (query.getEmail() != null && !query.getEmail().isBlank()) {
+                predicates.add(builder.like(builder.lower(root.get("email")), like(query.getEmail())));
+            }
+            return builder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+    
+    private static String like(String fragment) {
+        return "%" + fragment.trim().toLowerCase(Locale.ROOT) + "%";
+    }
+    
+    private static Comparator<User> comparator(String sortBy, Sort.Direction direction) {
+        Function<User, String> key = "name".equals(sortBy) ? User::getName : User::getEmail;
+        Comparator<User> comparator = "id".equals(sortBy)
+                ? Comparator.comparing(User::getId)
+                : Comparator.comparing(key, String.CASE_INSENSITIVE_ORDER).thenComparing(User::getId);
+        return direction.isAscending() ? comparator : comparator.reversed();
+    }
+    
+    private static <T> List<T> mergeAll(List<List<T>> perShard, Comparator<? super T> comparator) {
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+        List<Iterator<T>> inputs = new ArrayList<>(perShard.size());
+        int total = 0;
+        for (List<T> shardResult : perShard) {
+            inputs.add(shardResult.iterator());
+            total += shardResult.size();
+        }
+        List<T> merged = new ArrayList<>(total);
+        KWayMerge.merge(inputs, comparator).forEachRemaining(merged::add);
+        return merged;
+    }
+    
+    /**
+     * Keyset cursor over one shard, fetching the next batch when the current one is used up
+     */
+    private final class ShardCursor implements Iterator<User> {
+        private final int shard;
+        private final int batchSize;
+        private List<User> batch;
+        private int position;
+        
+        private ShardCursor(int shard, List<User> firstBatch, int batchSize) {
+            this.shard = shard;
+            this.batch = firstBatch;
+            this.batchSize = batchSize;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            if (position < batch.size()) {
+                return true;
+            }
+            if (batch.size() < batchSize) {
+                return false;
+            }
+            long lastId = batch.get(batch.size() - 1).getId();
+            batch = shardTemplate.inShard(shard, true,
+                    () -> userRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(batchSize)));
+            position = 0;
+            return !batch.isEmpty();
+        }
+        
+        @Override
+        public User next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch.get(position++);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package id.val.learn01.repository;
+
+import id.val.learn01.model.UserChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for the user change log.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Interface Function:
+ *    - findByIdGreaterThanOrderByIdAsc(): next batch after a watermark
+ *    - findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(): change feed
+ *      page between two cursor positions
+ *    - findMinId(), findMaxId(): current start and end of the log
+ *    - deleteByChangedAtBefore(): retention
+ * 
+ *    All methods work on the shard selected by ShardTemplate.
+ */
+@Repository
+public interface UserChangeRepository extends JpaRepository<UserChange, Long> {
+    
+    /**
+     * Reads the changes after a watermark
+     * @param id last change id already read
+     * @param limit batch size
+     * @return changes with a greater id, ascending
+     */
+    List<UserChange> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
+    /**
+     * Reads the changes between two positions
+     * @param after last change id already read
+     * @param upTo highest change id to read
+     * @param limit batch size
+     * @return changes in (after, upTo], ascending
+     */
+    List<UserChange> findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(Long after, Long upTo, Limit limit);
+    
+    /**
+     * Reads the id of the oldest change still kept
+     * @return oldest change id, or null if the log is empty
+     */
+    @Query("select min(c.id) from UserChange c")
+    Long findMinId();
+    
+    /**
+     * Reads the id of the newest change
+     * @return newest change id, or null if the log is empty
+     */
+    @Query("select max(c.id) from UserChange c")
+    Long findMaxId();
+    
+    /**
+     * Deletes changes older than a cutoff
+     * @param cutoff oldest change time to keep
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query("delete from UserChange c where c.changedAt < :cutoff")
+    int deleteByChangedAtBefore(@Param("cutoff") Instant cutoff);
+}
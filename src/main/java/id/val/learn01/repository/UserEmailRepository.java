@@ -0,0 +1,17 @@
+package id.val.learn01.repository;
+
+import id.val.learn01.model.UserEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the email lookup table.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Interface Function:
+ *    - Reads and writes rows of user_emails on the current shard
+ *    - Called through ShardedUserRepository, which selects the shard
+ */
+@Repository
+public interface UserEmailRepository extends JpaRepository<UserEmail, String> {
+}
@@ -1,9 +1,14 @@
 package id.val.learn01.repository;
 
 import id.val.learn01.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Repository interface for User entity.
  * 
@@ -32,6 +37,17 @@ import org.springframework.stereotype.Repository;
  *      * findAll(): Retrieves all
  *      * deleteById(): Removes entity
  *      * existsById(): Checks existence
+ *    - Inherited from JpaSpecificationExecutor:
+ *      * findAll(spec, pageable): Filtered, sorted page (search)
+ *    - insert(): Persists a user with a pre-assigned id (UserRepositoryCustom)
+ *    - findByEmail(): Natural-id lookup through the second-level cache,
+ *      without a transaction (UserRepositoryCustom)
+ *    - findByIdGreaterThanOrderByIdAsc(): Keyset page for export
+ *    - findByIdIn(), findAllProjectedBy(): Id and version only (UserVersion),
+ *      for cache snapshot validation
+ * 
+ *    All methods work on the shard selected by ShardTemplate; callers go
+ *    through ShardedUserRepository.
  * 
  * 4. Best Practices:
  *    - Interface-based design
@@ -41,5 +57,27 @@ import org.springframework.stereotype.Repository;
  *    - Clean architecture
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>,
+        UserRepositoryCustom {
+    
+    /**
+     * Reads the next keyset page ordered by id
+     * @param id last id already read
+     * @param limit page size
+     * @return users with a greater id, ascending
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
+    /**
+     * Reads the current versions of the given users
+     * @param ids user ids
+     * @return id and version of the users that still exist
+     */
+    List<UserVersion> findByIdIn(Collection<Long> ids);
+    
+    /**
+     * Reads the versions of all users
+     * @return id and version of every user
+     */
+    List<UserVersion> findAllProjectedBy();
 } 
\ No newline at end of file
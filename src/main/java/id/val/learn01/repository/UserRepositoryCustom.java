@@ -0,0 +1,40 @@
+package id.val.learn01.repository;
+
+import id.val.learn01.model.User;
+
+import java.util.Optional;
+
+/**
+ * Custom operations of UserRepository.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Interface Function:
+ *    - insert(): persists a user whose id is already assigned
+ *    - findByEmail(): natural-id lookup through the second-level cache
+ * 
+ * 2. Why Not save():
+ *    - save() treats an entity with an id as existing and merges it,
+ *      which costs an extra SELECT before every INSERT
+ * 
+ * 3. Why findByEmail() Has No Transaction:
+ *    - A transaction fetches a connection when it begins, even if the
+ *      entity then comes from the cache; a plain session only fetches one
+ *      on a cache miss, so repeated lookups never reach the database
+ */
+public interface UserRepositoryCustom {
+    
+    /**
+     * Inserts a new user with a pre-assigned id
+     * @param user user to insert
+     * @return the persisted user
+     */
+    User insert(User user);
+    
+    /**
+     * Finds a user by its exact email, first in the natural-id and entity caches, then
+     * on the shard selected in ShardContext. Must not be called inside a transaction.
+     * @param email email as stored
+     * @return the user, if present
+     */
+    Optional<User> findByEmail(String email);
+}
@@ -0,0 +1,38 @@
+package id.val.learn01.repository;
+
+import id.val.learn01.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnit;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.Optional;
+
+/**
+ * Implementation of UserRepositoryCustom, picked up by Spring Data.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Override
+    public User insert(User user) {
+        entityManager.persist(user);
+        return user;
+    }
+    
+    @Override
+    public Optional<User> findByEmail(String email) {
+        // Own session: the shared EntityManager would be closed again right after unwrap()
+        try (Session session = entityManagerFactory.unwrap(SessionFactory.class).openSession()) {
+            session.setDefaultReadOnly(true);
+            return session.bySimpleNaturalId(User.class).loadOptional(email);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package id.val.learn01.repository;
+
+/**
+ * Projection of a user row to its id and optimistic lock version.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Usage:
+ *    - Validates restored cache snapshot entries without reading full rows
+ *    - Spring Data selects only the two columns for derived queries
+ *      returning this interface
+ */
+public interface UserVersion {
+    
+    Long getId();
+    
+    Long getVersion();
+}
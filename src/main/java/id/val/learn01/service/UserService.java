@@ -1,15 +1,25 @@
 package id.val.learn01.service;
 
+import id.val.learn01.cache.CacheLoadRouting;
+import id.val.learn01.cache.UserSearchCache;
+import id.val.learn01.changelog.ChangeFeed;
+import id.val.learn01.changelog.ChangePage;
 import id.val.learn01.exception.ResourceNotFoundException;
 import id.val.learn01.model.User;
-import id.val.learn01.repository.UserRepository;
+import id.val.learn01.query.UserQuery;
+import id.val.learn01.repository.ShardedUserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Service class for User entity implementing business logic.
@@ -28,7 +38,7 @@ import java.util.Optional;
  *      * Facilitates unit testing
  * 
  *    - Dependency Injection Pattern:
- *      * Injects UserRepository into service
+ *      * Injects ShardedUserRepository into service
  *      * Reduces component coupling
  *      * Enables testing with mock objects
  * 
@@ -38,13 +48,35 @@ import java.util.Optional;
  *      * Eases system usage
  * 
  *    - Caching Pattern:
- *      * Uses @Cacheable for query result storage
- *      * Uses @CacheEvict for cache invalidation
+ *      * Uses @Cacheable(sync = true) for query result storage,
+ *        so concurrent misses load once and load times are recorded
+ *      * Uses @CacheEvict for cache invalidation: the users list and only
+ *        the userById entry of the changed user
+ *      * Search results are cached by UserSearchCache as id pages; each
+ *        write advances its generation instead of clearing it
+ *      * Other instances learn about the change from the change log
+ *        (ChangeLogPoller, CacheInvalidator)
+ *      * Cache misses are loaded through CacheLoadRouting, which sends
+ *        them to the primary for a while after each write, so a lagging
+ *        replica cannot put the old row back into a cache
+ *      * Lookups by email use Hibernate's second-level cache instead
+ *        (natural id "email"); Hibernate updates it when updateUser
+ *        changes an email, in the same commit that userById is evicted for
  *      * Improves application performance
  * 
+ *    - Sharding:
+ *      * ShardedUserRepository routes by id and scatter-gathers lists
+ *      * Each repository call runs its own shard transaction; reads are
+ *        read-only, so app.datasource.routing can still send them to a replica
+ * 
  * 3. Class Methods:
  *    - getAllUsers(): Retrieves all users (cached)
  *    - getUserById(): Retrieves user by ID (cached)
+ *    - getUserByEmail(): Retrieves user by email (second-level cache)
+ *    - searchUsers(): Filters, sorts and pages users across shards (cached)
+ *    - exportUsers(): Streams all users as CSV
+ *    - getChanges(): Pages through user changes after a cursor
+ *    - streamChanges(): Streams user changes over SSE
  *    - createUser(): Creates new user (evicts cache)
  *    - updateUser(): Updates existing user (evicts cache)
  *    - deleteUser(): Deletes user (evicts cache)
@@ -65,15 +97,24 @@ import java.util.Optional;
 public class UserService {
     
     @Autowired
-    private UserRepository userRepository;
+    private ShardedUserRepository userRepository;
+    
+    @Autowired
+    private ChangeFeed changeFeed;
+    
+    @Autowired
+    private UserSearchCache userSearchCache;
+    
+    @Autowired
+    private CacheLoadRouting cacheLoadRouting;
     
     /**
      * Retrieves all users from the database
      * @return List containing all user data
      */
-    @Cacheable(value = "users")
+    @Cacheable(value = "users", sync = true)
     public List<User> getAllUsers() {
-        List<User> users = userRepository.findAll();
+        List<User> users = cacheLoadRouting.load(userRepository::findAll);
         if (users.isEmpty()) {
             throw new ResourceNotFoundException("No user data available");
         }
@@ -86,19 +127,79 @@ public class UserService {
      * @return user data if found
      * @throws ResourceNotFoundException if user not found
      */
-    @Cacheable(value = "userById", key = "#id")
+    @Cacheable(value = "userById", key = "#id", sync = true)
     public User getUserById(Long id) {
-        return userRepository.findById(id)
+        return cacheLoadRouting.load(() -> userRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
     }
     
+    /**
+     * Retrieves user by email, ignoring case
+     * @param email email of the user to retrieve
+     * @return user data if found
+     * @throws ResourceNotFoundException if user not found
+     */
+    public User getUserByEmail(String email) {
+        return cacheLoadRouting.load(() -> userRepository.findByEmail(email))
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
+    }
+    
+    /**
+     * Searches users by id, name and email fragments
+     * @param query filter, sort and paging parameters
+     * @return requested page of users
+     * @throws IllegalArgumentException if sorting or paging parameters are invalid
+     */
+    public Page<User> searchUsers(UserQuery query) {
+        return userSearchCache.search(query);
+    }
+    
+    /**
+     * Writes all users as CSV (id,name,email) in id order
+     * @param writer destination, not closed
+     * @throws IOException if writing fails
+     */
+    public void exportUsers(Writer writer) throws IOException {
+        writer.write("id,name,email\n");
+        Iterator<User> users = userRepository.export();
+        while (users.hasNext()) {
+            User user = users.next();
+            writer.write(user.getId() + "," + csv(user.getName()) + "," + csv(user.getEmail()) + "\n");
+        }
+        writer.flush();
+    }
+    
+    /**
+     * Reads user changes after a cursor
+     * @param since cursor from a previous page or change event, or null to start now
+     * @param limit maximum number of changes
+     * @return changes (deletes as tombstones) and the cursor for the next call
+     * @throws IllegalArgumentException if the cursor is malformed
+     * @throws org.springframework.web.server.ResponseStatusException 410 if the cursor expired
+     */
+    public ChangePage getChanges(String since, int limit) {
+        return changeFeed.pull(since, limit);
+    }
+    
+    /**
+     * Streams user changes, resuming after a cursor if given
+     * @param since cursor to resume from, or null for live changes only
+     * @return SSE emitter
+     * @throws IllegalArgumentException if the cursor is malformed
+     * @throws org.springframework.web.server.ResponseStatusException 410 if the cursor expired,
+     *         503 if too many subscribers are connected
+     */
+    public SseEmitter streamChanges(String since) {
+        return changeFeed.subscribe(since);
+    }
+    
     /**
      * Creates a new user in the database
      * @param user user data to create
      * @return created user data (with ID)
      * @throws IllegalArgumentException if user data is invalid
      */
-    @CacheEvict(value = {"users", "userById"}, allEntries = true)
+    @CacheEvict(value = "users", allEntries = true)
     public User createUser(User user) {
         if (user.getName() == null || user.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("User name cannot be empty");
@@ -106,7 +207,10 @@ public class UserService {
         if (user.getEmail() == null || user.getEmail().trim().isEmpty()) {
             throw new IllegalArgumentException("User email cannot be empty");
         }
-        return userRepository.save(user);
+        User created = userRepository.insert(user);
+        cacheLoadRouting.invalidated();
+        userSearchCache.invalidate();
+        return created;
     }
     
     /**
@@ -117,7 +221,10 @@ public class UserService {
      * @throws ResourceNotFoundException if user not found
      * @throws IllegalArgumentException if user data is invalid
      */
-    @CacheEvict(value = {"users", "userById"}, allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "users", allEntries = true),
+            @CacheEvict(value = "userById", key = "#id")
+    })
     public User updateUser(Long id, User userDetails) {
         // Input validation
         if (userDetails.getName() == null || userDetails.getName().trim().isEmpty()) {
@@ -127,15 +234,11 @@ public class UserService {
             throw new IllegalArgumentException("User email cannot be empty");
         }
 
-        // Find user to update
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
-        
-        // Update data
-        user.setName(userDetails.getName());
-        user.setEmail(userDetails.getEmail());
-        
-        return userRepository.save(user);
+        // Update data, moving the email claim if the email changed
+        User updated = userRepository.update(id, userDetails.getName(), userDetails.getEmail());
+        cacheLoadRouting.invalidated();
+        userSearchCache.invalidate();
+        return updated;
     }
     
     /**
@@ -143,12 +246,21 @@ public class UserService {
      * @param id ID of the user to delete
      * @throws ResourceNotFoundException if user not found
      */
-    @CacheEvict(value = {"users", "userById"}, allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "users", allEntries = true),
+            @CacheEvict(value = "userById", key = "#id")
+    })
     public void deleteUser(Long id) {
-        // Check if user exists
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User", "id", id);
+        // Throws ResourceNotFoundException if the user does not exist
+        userRepository.delete(id);
+        cacheLoadRouting.invalidated();
+        userSearchCache.invalidate();
+    }
+    
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
         }
-        userRepository.deleteById(id);
+        return '"' + value.replace("\"", "\"\"") + '"';
     }
 } 
\ No newline at end of file
@@ -0,0 +1,63 @@
+package id.val.learn01.sharding;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Ordered k-way merge of per-shard results.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Each input is already sorted by the same comparator
+ *    - A heap holds the current head of every input, so each element
+ *      costs O(log k) for k shards
+ * 
+ * 2. Laziness:
+ *    - Inputs are advanced only as far as the caller reads, so a lazy
+ *      per-shard cursor fetches more rows only when needed (export)
+ */
+public final class KWayMerge {
+    
+    private KWayMerge() {
+    }
+    
+    /**
+     * Merges sorted inputs into one sorted iterator
+     * @param inputs sorted inputs, one per shard
+     * @param comparator order shared by all inputs
+     * @return merged iterator
+     */
+    public static <T> Iterator<T> merge(List<? extends Iterator<? extends T>> inputs, Comparator<? super T> comparator) {
+        PriorityQueue<Head<T>> heap = new PriorityQueue<>(Math.max(inputs.size(), 1),
+                (left, right) -> comparator.compare(left.value, right.value));
+        for (Iterator<? extends T> input : inputs) {
+            if (input.hasNext()) {
+                heap.add(new Head<>(input.next(), input));
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heap.isEmpty();
+            }
+            
+            @Override
+            public T next() {
+                Head<T> head = heap.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                if (head.input.hasNext()) {
+                    heap.add(new Head<>(head.input.next(), head.input));
+                }
+                return head.value;
+            }
+        };
+    }
+    
+    private record Head<T>(T value, Iterator<? extends T> input) {
+    }
+}
@@ -0,0 +1,144 @@
+package id.val.learn01.sharding;
+
+import id.val.learn01.changelog.ChangeLog;
+import id.val.learn01.config.ShardingProperties;
+import id.val.learn01.model.NodeLease;
+import id.val.learn01.repository.NodeLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Holds the node id of this instance as a lease in node_leases.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - ShardedIdGenerator puts the node id into every id; two instances
+ *      with the same node id can generate the same id in the same
+ *      millisecond, so the node id is claimed in the database at startup
+ *    - app.sharding.node-id set: exactly that node id is claimed; startup
+ *      fails if a running instance holds it
+ *    - Not set: the lowest free node id is claimed; startup fails when all
+ *      32 are held
+ * 
+ * 2. Lease:
+ *    - Renewed every app.sharding.node-lease-renew-interval for
+ *      app.sharding.node-lease-ttl; released on shutdown, so a restarted
+ *      instance usually gets its node id back
+ *    - A crashed instance's lease can be taken over once it expired
+ *    - If renewals fail until the lease ends, nodeId() throws and no ids
+ *      are generated; if another instance took the node id over
+ *      meanwhile, a new one is claimed
+ *    - Instance clocks must agree to well within ttl - renew interval
+ */
+@Component
+public class NodeIdLease {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NodeIdLease.class);
+    
+    private final NodeLeaseRepository leaseRepository;
+    private final ShardTemplate shardTemplate;
+    private final String owner;
+    private final Integer configured;
+    private final Duration ttl;
+    private volatile int nodeId;
+    private volatile long validUntilNanos;
+    
+    public NodeIdLease(NodeLeaseRepository leaseRepository, ShardTemplate shardTemplate, ChangeLog changeLog,
+                       ShardingProperties properties) {
+        Integer configured = properties.getNodeId();
+        if (configured != null && (configured < 0 || configured >= ShardedIdGenerator.NODES)) {
+            throw new IllegalArgumentException("app.sharding.node-id must be between 0 and " + (ShardedIdGenerator.NODES - 1));
+        }
+        if (properties.getNodeLeaseRenewInterval().compareTo(properties.getNodeLeaseTtl()) >= 0) {
+            throw new IllegalArgumentException("app.sharding.node-lease-renew-interval must be shorter than node-lease-ttl");
+        }
+        this.leaseRepository = leaseRepository;
+        this.shardTemplate = shardTemplate;
+        this.owner = changeLog.getInstanceId();
+        this.configured = configured;
+        this.ttl = properties.getNodeLeaseTtl();
+        claim();
+    }
+    
+    /**
+     * Node id held by this instance
+     * @return node id, 0 to ShardedIdGenerator.NODES - 1
+     * @throws IllegalStateException if the lease could not be renewed in time
+     */
+    public int nodeId() {
+        if (System.nanoTime() - validUntilNanos > 0) {
+            throw new IllegalStateException("Lease of node id " + nodeId + " expired; no ids until it is renewed");
+        }
+        return nodeId;
+    }
+    
+    @Scheduled(fixedDelayString = "#{@shardingProperties.nodeLeaseRenewInterval.toMillis()}",
+            initialDelayString = "#{@shardingProperties.nodeLeaseRenewInterval.toMillis()}")
+    public void renew() {
+        long started = System.nanoTime();
+        try {
+            int renewed = shardTemplate.inShard(0, false,
+                    () -> leaseRepository.renew(nodeId, owner, Instant.now().plus(ttl)));
+            if (renewed == 1) {
+                validUntilNanos = started + ttl.toNanos();
+                return;
+            }
+            logger.error("Lease of node id {} was taken over by another instance; claiming a node id again", nodeId);
+            claim();
+        } catch (RuntimeException ex) {
+            logger.warn("Could not renew the lease of node id {}", nodeId, ex);
+        }
+    }
+    
+    @PreDestroy
+    public void release() {
+        try {
+            shardTemplate.inShard(0, false, () -> leaseRepository.release(nodeId, owner));
+        } catch (RuntimeException ex) {
+            logger.warn("Could not release the lease of node id {}; it expires after {}", nodeId, ttl, ex);
+        }
+    }
+    
+    private synchronized void claim() {
+        int first = configured != null ? configured : 0;
+        int last = configured != null ? configured : ShardedIdGenerator.NODES - 1;
+        for (int node = first; node <= last; node++) {
+            long started = System.nanoTime();
+            if (tryClaim(node)) {
+                nodeId = node;
+                validUntilNanos = started + ttl.toNanos();
+                logger.info("Leased node id {} for instance {}", node, owner);
+                return;
+            }
+        }
+        throw new IllegalStateException(configured != null
+                ? "app.sharding.node-id " + configured + " is leased by another running instance"
+                : "All " + ShardedIdGenerator.NODES + " node ids are leased by running instances");
+    }
+    
+    /**
+     * Takes over an expired or own lease, else inserts a new one
+     * @return false if a running instance holds the node id
+     */
+    private boolean tryClaim(int node) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+        if (shardTemplate.inShard(0, false, () -> leaseRepository.takeOver(node, owner, expiresAt, now)) == 1) {
+            return true;
+        }
+        try {
+            shardTemplate.inShard(0, false, () -> leaseRepository.saveAndFlush(new NodeLease(node, owner, expiresAt)));
+            return true;
+        } catch (DataIntegrityViolationException ex) {
+            // Held by a running instance, or claimed concurrently
+            return false;
+        }
+    }
+}
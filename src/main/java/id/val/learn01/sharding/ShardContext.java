@@ -0,0 +1,33 @@
+package id.val.learn01.sharding;
+
+/**
+ * Per-thread shard selection.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Holds the shard the current thread works on
+ *    - Read by ShardRoutingDataSource when a connection is fetched
+ * 
+ * 2. Lifecycle:
+ *    - Set and restored by ShardTemplate around each shard transaction
+ *    - Unset means shard 0 (schema management, health checks)
+ */
+public final class ShardContext {
+    
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+    
+    private ShardContext() {
+    }
+    
+    public static Integer get() {
+        return SHARD.get();
+    }
+    
+    public static void set(Integer shard) {
+        if (shard == null) {
+            SHARD.remove();
+        } else {
+            SHARD.set(shard);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package id.val.learn01.sharding;
+
+import id.val.learn01.config.ShardingProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Maps ids and emails to shards.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Placement:
+ *    - A new user is placed in bucket hash(email) % 1024; the bucket is
+ *      encoded in its id by ShardedIdGenerator
+ *    - shard = bucket % shardCount, for ids and emails alike, so a new
+ *      user and its email lookup row start on the same shard
+ * 
+ * 2. Email Keys:
+ *    - Emails are lower-cased before hashing and in the lookup table,
+ *      matching MySQL's case-insensitive unique index
+ * 
+ * 3. Single Shard:
+ *    - With app.sharding.enabled=false there is one shard and every
+ *      method returns 0
+ */
+@Component
+public class ShardRouter {
+    
+    private final int shardCount;
+    
+    public ShardRouter(ShardingProperties properties) {
+        this.shardCount = properties.isEnabled() ? 1 + properties.getShards().size() : 1;
+    }
+    
+    public int getShardCount() {
+        return shardCount;
+    }
+    
+    /**
+     * Shard holding the user with the given id
+     * @param id user id
+     * @return shard index
+     */
+    public int shardOf(long id) {
+        return ShardedIdGenerator.bucketOf(id) % shardCount;
+    }
+    
+    /**
+     * Shard holding the lookup row of the given email
+     * @param email email address
+     * @return shard index
+     */
+    public int shardOfEmail(String email) {
+        return bucketOfEmail(email) % shardCount;
+    }
+    
+    /**
+     * Hash bucket of an email
+     * @param email email address
+     * @return bucket, 0 to ShardedIdGenerator.BUCKETS - 1
+     */
+    public int bucketOfEmail(String email) {
+        // FNV-1a over the UTF-8 bytes spreads near-identical emails better than String.hashCode
+        int hash = 0x811c9dc5;
+        for (byte b : emailKey(email).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x01000193;
+        }
+        return (hash ^ (hash >>> 16)) & (ShardedIdGenerator.BUCKETS - 1);
+    }
+    
+    /**
+     * Normalized key of an email in the lookup table
+     * @param email email address
+     * @return trimmed, lower-cased email
+     */
+    public static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,57 @@
+package id.val.learn01.sharding;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes connections to the shard selected in ShardContext.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - One target per shard, keyed by shard index
+ *    - Shard 0 is the default when no shard is selected
+ * 
+ * 2. Requirements:
+ *    - Must sit behind LazyConnectionDataSourceProxy, so the connection
+ *      is fetched after ShardTemplate has selected the shard
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    
+    private final List<DataSource> shards;
+    
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < this.shards.size(); i++) {
+            targets.put(i, this.shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(this.shards.get(0));
+    }
+    
+    public List<DataSource> getShards() {
+        return shards;
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.get();
+    }
+    
+    @Override
+    public void destroy() throws IOException {
+        // Shard 0 is a Spring bean and is closed by the container
+        for (DataSource shard : shards.subList(1, shards.size())) {
+            if (shard instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package id.val.learn01.sharding;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+/**
+ * Applies the Hibernate schema action to every shard, not only shard 0.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Hibernate runs spring.jpa.hibernate.ddl-auto once, on the default
+ *      connection, which is shard 0
+ *    - Registered as a Hibernate Integrator to capture the mapping
+ *      metadata, then replays the same action with each other shard
+ *      selected in ShardContext
+ * 
+ * 2. Behaviour:
+ *    - ddl-auto=none: nothing happens, shards are provisioned externally
+ *    - create-drop: the drop is not repeated on the extra shards
+ */
+public class ShardSchemaInitializer implements Integrator, SmartInitializingSingleton {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+    
+    private final int shardCount;
+    private Metadata metadata;
+    private SessionFactoryImplementor sessionFactory;
+    
+    public ShardSchemaInitializer(int shardCount) {
+        this.shardCount = shardCount;
+    }
+    
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+    
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.sessionFactory = null;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (metadata == null) {
+            logger.warn("Hibernate metadata not captured; shards 1..{} keep their current schema", shardCount - 1);
+            return;
+        }
+        for (int shard = 1; shard < shardCount; shard++) {
+            ShardContext.set(shard);
+            try {
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                        sessionFactory.getProperties(), action -> { });
+            } finally {
+                ShardContext.set(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package id.val.learn01.sharding;
+
+import id.val.learn01.config.ShardingProperties;
+import id.val.learn01.datasource.RoutingContext;
+import id.val.learn01.monitoring.SqlProfiler;
+import id.val.learn01.tracing.Span;
+import id.val.learn01.tracing.Tracer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Runs work in a transaction on one shard, or on all shards in parallel.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - inShard(): selects the shard in ShardContext and runs a local
+ *      transaction there (read-only when asked, so read/write routing
+ *      still applies on a single shard)
+ *    - scatter(): runs one such transaction per shard concurrently and
+ *      returns the results in shard order
+ *    - onShard(): selects the shard without a transaction, for work that
+ *      only fetches a connection when it misses a cache
+ * 
+ * 2. Rules:
+ *    - A shard transaction never joins a transaction on another shard;
+ *      there are no cross-shard transactions
+ *    - The client id for read-your-writes, the primary-required flag of
+ *      cache loads, the request trace and the SqlProfiler request are
+ *      carried to worker threads, so scatter statements keep their
+ *      controller method and count toward the request's
+ *      repeated-statement check
+ * 
+ * 3. Tracing:
+ *    - inShard() runs in a "shard.tx" span (detail "shard 1" or "shard 1
+ *      read-only"), covering transaction begin and commit
+ *    - Each scatter task runs in a "shard.scatter" span on its worker
+ *      thread; a late start shows time queued for a scatter thread
+ * 
+ * 4. Threads:
+ *    - Scatter uses a fixed pool (app.sharding.scatter-threads); with one
+ *      shard everything runs on the calling thread
+ */
+@Component
+public class ShardTemplate {
+    
+    private static final String TX_SPAN = "shard.tx";
+    private static final String SCATTER_SPAN = "shard.scatter";
+    
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readWrite;
+    private final TransactionTemplate readOnly;
+    private final ExecutorService executor;
+    private final Tracer tracer;
+    private final SqlProfiler sqlProfiler;
+    private final String[] shardNames;
+    private final String[] readOnlyShardNames;
+    
+    public ShardTemplate(ShardRouter shardRouter, PlatformTransactionManager transactionManager,
+                         ShardingProperties properties, Tracer tracer, SqlProfiler sqlProfiler) {
+        this.shardRouter = shardRouter;
+        this.tracer = tracer;
+        this.sqlProfiler = sqlProfiler;
+        this.readWrite = new TransactionTemplate(transactionManager);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        
+        int shards = shardRouter.getShardCount();
+        this.shardNames = new String[shards];
+        this.readOnlyShardNames = new String[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            shardNames[shard] = "shard " + shard;
+            readOnlyShardNames[shard] = "shard " + shard + " read-only";
+        }
+        int threads = properties.getScatterThreads() > 0 ? properties.getScatterThreads() : shards;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = shards > 1 ? Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+    
+    public int getShardCount() {
+        return shardRouter.getShardCount();
+    }
+    
+    /**
+     * Runs work in a transaction on one shard
+     * @param shard shard index
+     * @param readOnly whether the transaction is read-only
+     * @param work work to run
+     * @return result of the work
+     * @throws IllegalStateException if a transaction on another shard is active
+     */
+    public <T> T inShard(int shard, boolean readOnly, Supplier<T> work) {
+        Integer previous = ShardContext.get();
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && (previous == null ? 0 : previous) != shard) {
+            throw new IllegalStateException("Cannot join a transaction on shard " + previous + " from shard " + shard);
+        }
+        ShardContext.set(shard);
+        try (Span span = tracer.startSpan(TX_SPAN, (readOnly ? readOnlyShardNames : shardNames)[shard])) {
+            return (readOnly ? this.readOnly : readWrite).execute(status -> work.get());
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+    
+    /**
+     * Runs work on one shard without a transaction; a connection is only fetched
+     * if the work reaches the database
+     * @param shard shard index
+     * @param work work to run
+     * @return result of the work
+     * @throws IllegalStateException if a transaction is active
+     */
+    public <T> T onShard(int shard, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot leave the active transaction for shard " + shard);
+        }
+        Integer previous = ShardContext.get();
+        ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+    
+    /**
+     * Runs work on every shard in parallel
+     * @param readOnly whether the transactions are read-only
+     * @param work work to run, given the shard index
+     * @return results in shard order
+     */
+    public <T> List<T> scatter(boolean readOnly, IntFunction<T> work) {
+        int shards = shardRouter.getShardCount();
+        if (executor == null) {
+            return Collections.singletonList(inShard(0, readOnly, () -> work.apply(0)));
+        }
+        String clientId = RoutingContext.getClientId();
+        boolean primaryRequired = RoutingContext.isPrimaryRequired();
+        Span caller = tracer.current();
+        SqlProfiler.RequestFork request = sqlProfiler.forkRequest();
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            int target = shard;
+            Supplier<T> task = () -> inShard(target, readOnly, () -> work.apply(target));
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                RoutingContext.setClientId(clientId);
+                RoutingContext.setPrimaryRequired(primaryRequired);
+                try (Span span = tracer.startSpan(caller, SCATTER_SPAN, shardNames[target])) {
+                    return request != null ? request.run(task) : task.get();
+                } finally {
+                    RoutingContext.clear();
+                }
+            }, executor));
+        }
+        List<T> results = new ArrayList<>(shards);
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        } finally {
+            if (request != null) {
+                request.join();
+            }
+        }
+        return results;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
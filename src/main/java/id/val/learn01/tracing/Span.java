@@ -0,0 +1,120 @@
+package id.val.learn01.tracing;
+
+/**
+ * One timed operation within a trace.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Created by Tracer.startSpan() as a child of the current span of the
+ *      thread, and made the current span itself until close()
+ *    - close() records the end time and restores the previous span; closing
+ *      the root span ends the trace and hands it to the tail sampler
+ *    - Meant for try-with-resources, so spans nest like the calls they time
+ * 
+ * 2. Not Recording:
+ *    - Outside a trace (background threads, tracing disabled, span limit
+ *      reached) Tracer returns NOOP, whose methods do nothing; callers that
+ *      build a detail string check isRecording() first
+ * 
+ * 3. Fields:
+ *    - name is a constant such as "cache" or "sql", detail the specifics
+ *      ("userById miss", the statement); neither is copied
+ *    - Written by the thread that started the span only
+ */
+public final class Span implements AutoCloseable {
+    
+    /** Span returned when nothing is recorded */
+    public static final Span NOOP = new Span(null, null, null, -1, null, null);
+    
+    final Trace trace;
+    final Span parent;
+    final String name;
+    final int index;
+    final long startNanos;
+    private final Tracer.Scope scope;
+    private final Span previous;
+    String detail;
+    String error;
+    long endNanos;
+    
+    Span(Trace trace, Span parent, Tracer.Scope scope, int index, String name, String detail) {
+        this.trace = trace;
+        this.parent = parent;
+        this.scope = scope;
+        this.index = index;
+        this.name = name;
+        this.detail = detail;
+        if (trace == null) {
+            this.previous = null;
+            this.startNanos = 0;
+            return;
+        }
+        this.previous = scope.current;
+        trace.spans[index] = this;
+        this.startNanos = System.nanoTime();
+        scope.current = this;
+    }
+    
+    /**
+     * Whether this span is part of a trace
+     * @return false for NOOP
+     */
+    public boolean isRecording() {
+        return trace != null;
+    }
+    
+    /**
+     * Sets the detail of the span, e.g. the bucket, key or statement
+     * @param detail detail text
+     * @return this span
+     */
+    public Span detail(String detail) {
+        if (trace != null) {
+            this.detail = detail;
+        }
+        return this;
+    }
+    
+    /**
+     * Marks the span as failed
+     * @param failure exception thrown by the timed operation
+     */
+    public void error(Throwable failure) {
+        if (trace != null && failure != null) {
+            this.error = failure.getClass().getSimpleName();
+        }
+    }
+    
+    /**
+     * HTTP status of the request; only meaningful on the root span
+     * @param status response status, 5xx marks the trace as failed
+     */
+    public void status(int status) {
+        if (trace != null) {
+            trace.status = status;
+        }
+    }
+    
+    /**
+     * Ends the span; ends the trace if this is the root span
+     */
+    @Override
+    public void close() {
+        if (trace == null || endNanos != 0) {
+            return;
+        }
+        endNanos = System.nanoTime();
+        scope.current = previous;
+        if (parent == null) {
+            trace.finish(this);
+        }
+    }
+    
+    String threadName() {
+        return scope.threadName;
+    }
+    
+    boolean sameThread(Span other) {
+        return scope == other.scope;
+    }
+}
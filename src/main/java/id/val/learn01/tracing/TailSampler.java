@@ -0,0 +1,65 @@
+package id.val.learn01.tracing;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keep-or-drop decision for a finished trace.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Errors are always kept, then traces at or above the slow threshold
+ *    - Every other trace is kept with probability sampleRate
+ *    - The decision is taken when the trace has ended (tail-based), so the
+ *      rare slow request is never lost to an up-front coin flip
+ * 
+ * 2. Cost:
+ *    - Runs once per request: two comparisons and, for fast traces, one
+ *      ThreadLocalRandom draw compared against a precomputed bound; no
+ *      allocation and no shared state (see TracingBenchmark)
+ */
+public final class TailSampler {
+    
+    /** Random bits compared against the bound, as in ThreadLocalRandom.nextDouble() */
+    private static final int RANDOM_BITS = 53;
+    
+    private final long slowThresholdNanos;
+    private final long sampleBound;
+    
+    /**
+     * @param slowThreshold traces at least this long are always kept
+     * @param sampleRate fraction of fast, successful traces to keep (0.0 - 1.0)
+     */
+    public TailSampler(Duration slowThreshold, double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0.0 and 1.0: " + sampleRate);
+        }
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleBound = (long) (sampleRate * (1L << RANDOM_BITS));
+    }
+    
+    /**
+     * Decides whether a finished trace is kept
+     * @param durationNanos trace duration
+     * @param error whether the request failed
+     * @return why the trace is kept, or DROPPED
+     */
+    public Decision decide(long durationNanos, boolean error) {
+        if (error) {
+            return Decision.ERROR;
+        }
+        if (durationNanos >= slowThresholdNanos) {
+            return Decision.SLOW;
+        }
+        return (ThreadLocalRandom.current().nextLong() >>> (Long.SIZE - RANDOM_BITS)) < sampleBound
+                ? Decision.SAMPLED : Decision.DROPPED;
+    }
+    
+    public enum Decision {
+        ERROR, SLOW, SAMPLED, DROPPED;
+        
+        public boolean isKept() {
+            return this != DROPPED;
+        }
+    }
+}
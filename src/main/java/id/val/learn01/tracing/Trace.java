@@ -0,0 +1,50 @@
+package id.val.learn01.tracing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spans of one request while it is running.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - Holds a fixed array of app.tracing.max-spans slots; spans claim a slot
+ *      with one atomic increment, so workers of a shard scatter can add spans
+ *      to the request's trace without a lock
+ *    - Spans beyond the array are not recorded, only counted
+ *    - Becomes a TraceRecord only if the tail sampler keeps it
+ */
+final class Trace {
+    
+    final Tracer tracer;
+    final long startedAtMillis;
+    final Span[] spans;
+    private final AtomicInteger size = new AtomicInteger();
+    int status;
+    
+    Trace(Tracer tracer, int maxSpans) {
+        this.tracer = tracer;
+        this.startedAtMillis = System.currentTimeMillis();
+        this.spans = new Span[maxSpans];
+    }
+    
+    /**
+     * Claims a slot for a new span
+     * @return slot index, or -1 if the trace is full
+     */
+    int reserve() {
+        int index = size.getAndIncrement();
+        return index < spans.length ? index : -1;
+    }
+    
+    int size() {
+        return Math.min(size.get(), spans.length);
+    }
+    
+    int droppedSpans() {
+        return Math.max(size.get() - spans.length, 0);
+    }
+    
+    void finish(Span root) {
+        tracer.finish(this, root);
+    }
+}
@@ -0,0 +1,79 @@
+package id.val.learn01.tracing;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Actuator endpoint for the traces kept by the tail sampler.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Operations:
+ *    - GET /actuator/traces: sampling settings, counts per decision and
+ *      the newest kept traces; optional filters minDuration (e.g. 100ms),
+ *      errors=true, name (substring of "GET /api/users/{id}") and limit
+ *      (default 20)
+ *    - GET /actuator/traces/{id}: one trace
+ *    - DELETE /actuator/traces: empties the ring buffer
+ * 
+ * 2. Usage:
+ *    - Served on the management port only, like the other admin operations
+ *    - Each trace carries a breakdown of self time per span name, so one
+ *      slow request shows whether it waited on the rate limiter, a cache
+ *      miss, the connection pool or the SQL itself
+ */
+@Component
+@Endpoint(id = "traces")
+public class TraceEndpoint {
+    
+    private static final int DEFAULT_LIMIT = 20;
+    
+    private final Tracer tracer;
+    
+    public TraceEndpoint(Tracer tracer) {
+        this.tracer = tracer;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> traces(@Nullable Duration minDuration, @Nullable Boolean errors,
+                                      @Nullable String name, @Nullable Integer limit) {
+        if (limit != null && limit < 1) {
+            String message = "Limit must be positive";
+            throw new InvalidEndpointRequestException(message, message);
+        }
+        Predicate<TraceRecord> filter = trace -> true;
+        if (minDuration != null) {
+            double minMillis = minDuration.toNanos() / 1_000_000.0;
+            filter = filter.and(trace -> trace.durationMs() >= minMillis);
+        }
+        if (Boolean.TRUE.equals(errors)) {
+            filter = filter.and(TraceRecord::error);
+        }
+        if (name != null) {
+            filter = filter.and(trace -> trace.name().contains(name));
+        }
+        Map<String, Object> traces = new LinkedHashMap<>();
+        traces.put("sampling", tracer.sampling());
+        traces.put("traces", tracer.recent(filter, limit == null ? DEFAULT_LIMIT : limit));
+        return traces;
+    }
+    
+    @ReadOperation
+    public TraceRecord trace(@Selector String id) {
+        return tracer.find(id);
+    }
+    
+    @DeleteOperation
+    public void clear() {
+        tracer.clear();
+    }
+}
@@ -0,0 +1,118 @@
+package id.val.learn01.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A kept trace, as returned by /actuator/traces.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Spans:
+ *    - In start order; the root span (id 0) is the request, parentId -1
+ *    - offsetMs is the start relative to the request, durationMs the wall
+ *      time, selfMs the time not covered by child spans; children on other
+ *      threads run in parallel, so only the longest of them is subtracted
+ *    - thread is only set for spans run on another thread (shard scatter)
+ * 
+ * 2. Breakdown:
+ *    - selfMs summed per span name, largest first; answers where the time
+ *      went: "ratelimit", "cache", "shard.tx", "jdbc.getConnection" (pool
+ *      wait), "sql" and so on
+ * 
+ * @param id trace id
+ * @param name request method and path pattern
+ * @param detail request path
+ * @param startedAt request start
+ * @param durationMs request duration
+ * @param status HTTP status
+ * @param error whether the request failed (5xx or unhandled exception)
+ * @param kept why the tail sampler kept the trace
+ * @param droppedSpans spans beyond app.tracing.max-spans, not recorded
+ * @param breakdown self time per span name
+ * @param spans recorded spans
+ */
+public record TraceRecord(String id, String name, String detail, Instant startedAt, double durationMs, int status,
+                          boolean error, TailSampler.Decision kept, int droppedSpans, Map<String, Double> breakdown,
+                          List<SpanRecord> spans) {
+    
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    
+    /**
+     * Copies a finished trace
+     * @param trace finished trace
+     * @param root its root span
+     * @param kept sampler decision
+     * @return immutable record
+     */
+    static TraceRecord of(Trace trace, Span root, TailSampler.Decision kept) {
+        int size = trace.size();
+        long[] childNanos = new long[size];
+        long[] parallelNanos = new long[size];
+        long[] endNanos = new long[size];
+        for (int i = 0; i < size; i++) {
+            Span span = trace.spans[i];
+            if (span == null) {
+                continue;
+            }
+            // Spans still open when the request ended (abandoned scatter work) end with it
+            endNanos[i] = span.endNanos == 0 ? root.endNanos : span.endNanos;
+            if (span.parent == null) {
+                continue;
+            }
+            long duration = endNanos[i] - span.startNanos;
+            if (span.sameThread(span.parent)) {
+                childNanos[span.parent.index] += duration;
+            } else {
+                parallelNanos[span.parent.index] = Math.max(parallelNanos[span.parent.index], duration);
+            }
+        }
+        List<SpanRecord> spans = new ArrayList<>(size);
+        Map<String, long[]> selfByName = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Span span = trace.spans[i];
+            if (span == null) {
+                continue;
+            }
+            long duration = endNanos[i] - span.startNanos;
+            long self = Math.max(duration - childNanos[i] - parallelNanos[i], 0);
+            selfByName.computeIfAbsent(span.name, name -> new long[1])[0] += self;
+            spans.add(new SpanRecord(i, span.parent == null ? -1 : span.parent.index, span.name, span.detail,
+                    millis(span.startNanos - root.startNanos), millis(duration), millis(self),
+                    span.sameThread(root) ? null : span.threadName(),
+                    span.endNanos == 0 ? "unfinished" : span.error));
+        }
+        Map<String, Double> breakdown = new LinkedHashMap<>();
+        selfByName.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+                .forEach(entry -> breakdown.put(entry.getKey(), millis(entry.getValue()[0])));
+        return new TraceRecord(String.format("%016x", ThreadLocalRandom.current().nextLong()), root.name,
+                root.detail, Instant.ofEpochMilli(trace.startedAtMillis), millis(root.endNanos - root.startNanos),
+                trace.status, kept == TailSampler.Decision.ERROR, kept, trace.droppedSpans(), breakdown, spans);
+    }
+    
+    private static double millis(long nanos) {
+        return Math.round(nanos / NANOS_PER_MILLI * 1000) / 1000.0;
+    }
+    
+    /**
+     * One recorded span
+     * @param id index within the trace
+     * @param parentId index of the parent span, -1 for the root
+     * @param name span kind, e.g. "cache" or "sql"
+     * @param detail specifics, e.g. "userById miss" or the statement
+     * @param offsetMs start relative to the request start
+     * @param durationMs wall time
+     * @param selfMs wall time minus child spans
+     * @param thread thread name if not the request thread
+     * @param error exception class, "unfinished" if still open at the end of the request
+     */
+    public record SpanRecord(int id, int parentId, String name, String detail, double offsetMs, double durationMs,
+                             double selfMs, String thread, String error) {
+    }
+}
@@ -0,0 +1,85 @@
+package id.val.learn01.tracing;
+
+import id.val.learn01.repository.UserRepository;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aspect adding spans for controller and repository calls.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Spans:
+ *    - "controller": public methods of the controllers, e.g. detail
+ *      "UserController.getUserById"
+ *    - "repository": public methods of ShardedUserRepository and calls
+ *      through the UserRepository proxy, e.g. "UserRepository.findById"
+ *    - An exception leaving the method is recorded on the span
+ * 
+ * 2. Ordering:
+ *    - Runs just outside RateLimitAspect, so the "ratelimit" span is a
+ *      child of the controller span
+ * 
+ * 3. Cost:
+ *    - Outside a trace the advice only checks the current span; the detail
+ *      string is built once per method
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class TracingAspect {
+    
+    static final String CONTROLLER_SPAN = "controller";
+    static final String REPOSITORY_SPAN = "repository";
+    
+    private final Tracer tracer;
+    private final Map<Method, String> details = new ConcurrentHashMap<>();
+    
+    public TracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+    
+    @Around("execution(public * id.val.learn01.controller..*(..))")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, CONTROLLER_SPAN);
+    }
+    
+    @Around("execution(public * id.val.learn01.repository.ShardedUserRepository.*(..)) "
+            + "|| this(id.val.learn01.repository.UserRepository)")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, REPOSITORY_SPAN);
+    }
+    
+    private Object trace(ProceedingJoinPoint joinPoint, String name) throws Throwable {
+        if (!tracer.current().isRecording()) {
+            return joinPoint.proceed();
+        }
+        try (Span span = tracer.startSpan(name, detail(joinPoint))) {
+            try {
+                return joinPoint.proceed();
+            } catch (Throwable ex) {
+                span.error(ex);
+                throw ex;
+            }
+        }
+    }
+    
+    /**
+     * Simple class and method name; calls through the Spring Data proxy are named after
+     * UserRepository rather than the interface declaring the method
+     */
+    private String detail(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        boolean userRepository = joinPoint.getThis() instanceof UserRepository;
+        return details.computeIfAbsent(method, m -> (userRepository
+                ? UserRepository.class.getSimpleName() : m.getDeclaringClass().getSimpleName()) + "." + m.getName());
+    }
+}
@@ -0,0 +1,70 @@
+package id.val.learn01.tracing;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Interceptor that opens and closes the root span of each request.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Class Function:
+ *    - The root span is named after the HTTP method and the matched path
+ *      pattern ("GET /api/users/{id}"), so traces of one endpoint group
+ *      together; the actual path is its detail
+ *    - A 5xx status or an exception that reached the dispatcher marks the
+ *      trace as failed, which the tail sampler always keeps
+ *    - Registered first in WebConfig, so the other interceptors and the
+ *      whole handler run inside the trace
+ * 
+ * 2. Scope:
+ *    - Only controller methods on the original dispatch are traced, not
+ *      static resources or the /error dispatch
+ *    - The trace ends when async handling starts (SSE), like the SQL
+ *      profiler's request scope
+ */
+@Component
+public class TracingInterceptor implements AsyncHandlerInterceptor {
+    
+    private static final String ROOT_SPAN = TracingInterceptor.class.getName() + ".ROOT_SPAN";
+    
+    @Autowired
+    private Tracer tracer;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && request.getDispatcherType() == DispatcherType.REQUEST) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String path = request.getRequestURI();
+            Span root = tracer.startTrace(request.getMethod() + " " + (pattern != null ? pattern : path), path);
+            if (root.isRecording()) {
+                request.setAttribute(ROOT_SPAN, root);
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        finish(request, response, null);
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        finish(request, response, ex);
+    }
+    
+    private void finish(HttpServletRequest request, HttpServletResponse response, Exception ex) {
+        if (request.getAttribute(ROOT_SPAN) instanceof Span root) {
+            request.removeAttribute(ROOT_SPAN);
+            root.status(response.getStatus());
+            root.error(ex);
+            root.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package id.val.learn01.tracing;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * datasource-proxy listener adding spans for connections and statements.
+ * 
+ * DETAILED EXPLANATION:
+ * 1. Spans:
+ *    - "jdbc.getConnection": DataSource.getConnection(); with the plain
+ *      pool this is the wait for a Hikari connection
+ *    - "jdbc.prepare": Connection.prepareStatement()/createStatement();
+ *      behind the LazyConnectionDataSourceProxy (sharding or read/write
+ *      routing) the pool checkout happens in the first one of a transaction
+ *    - "sql": statement execution, the SQL with ? placeholders as detail
+ * 
+ * 2. Registration:
+ *    - Chained next to SqlProfiler on the same proxy (SqlProfilerConfig),
+ *      so JDBC spans need app.sql-profiler.enabled=true
+ */
+@Component
+public class TracingJdbcListener implements QueryExecutionListener, MethodExecutionListener {
+    
+    static final String CONNECTION_SPAN = "jdbc.getConnection";
+    static final String PREPARE_SPAN = "jdbc.prepare";
+    static final String SQL_SPAN = "sql";
+    
+    private final Tracer tracer;
+    
+    public TracingJdbcListener(Tracer tracer) {
+        this.tracer = tracer;
+    }
+    
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        tracer.startSpan(SQL_SPAN, queryInfoList.isEmpty() ? null : queryInfoList.get(0).getQuery());
+    }
+    
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Span span = tracer.current();
+        if (span.name == SQL_SPAN) {
+            span.error(execInfo.getThrowable());
+            span.close();
+        }
+    }
+    
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+        String name = spanName(executionContext);
+        if (name != null) {
+            tracer.startSpan(name);
+        }
+    }
+    
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        String name = spanName(executionContext);
+        if (name != null) {
+            Span span = tracer.current();
+            if (span.name == name) {
+                span.error(executionContext.getThrown());
+                span.close();
+            }
+        }
+    }
+    
+    private static String spanName(MethodExecutionContext executionContext) {
+        Object target = executionContext.getTarget();
+        if (target instanceof Connection) {
+            String method = executionContext.getMethod().getName();
+            return method.startsWith("prepare") || method.equals("createStatement") ? PREPARE_SPAN : null;
+        }
+        if (target instanceof DataSource) {
+            return executionContext.getMethod().getName().equals("getConnection") ? CONNECTION_SPAN : null;
+        }
+        return null;
+    }
+}
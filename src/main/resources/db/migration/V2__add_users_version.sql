@@ -0,0 +1,2 @@
+-- Optimistic lock column of User; existing rows start at version 0
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
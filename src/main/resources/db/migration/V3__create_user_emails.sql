@@ -0,0 +1,10 @@
+-- Email lookup table that keeps emails unique across shards (UserEmail)
+CREATE TABLE user_emails (
+    email VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (email)
+) ENGINE=InnoDB;
+
+-- Claims of the existing users; with more than one shard, move rows to their shard afterwards (README, Sharding)
+INSERT INTO user_emails (email, user_id)
+SELECT LOWER(TRIM(email)), id FROM users;
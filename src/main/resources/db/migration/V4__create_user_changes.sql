@@ -0,0 +1,14 @@
+-- Change log read by ChangeLogPoller and the change feed (UserChange)
+CREATE TABLE user_changes (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    type ENUM ('CREATED', 'UPDATED', 'DELETED') NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    version BIGINT NOT NULL,
+    origin VARCHAR(36) NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_user_changes_changed_at ON user_changes (changed_at);
@@ -0,0 +1,7 @@
+-- Node ids of the id generator, leased per instance (NodeLease); only used on shard 0
+CREATE TABLE node_leases (
+    node_id INTEGER NOT NULL,
+    owner VARCHAR(36) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (node_id)
+) ENGINE=InnoDB;
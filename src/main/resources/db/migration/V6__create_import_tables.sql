@@ -0,0 +1,33 @@
+-- Bulk import jobs (ImportJob, shard 0) and their per-part checkpoints (ImportCheckpoint, every shard)
+CREATE TABLE import_jobs (
+    id VARCHAR(36) NOT NULL,
+    file VARCHAR(1024) NOT NULL,
+    format ENUM ('CSV', 'NDJSON') NOT NULL,
+    status ENUM ('RUNNING', 'COMPLETED', 'FAILED') NOT NULL,
+    file_size BIGINT NOT NULL,
+    file_modified BIGINT NOT NULL,
+    chunk_size BIGINT NOT NULL,
+    part_size INTEGER,
+    chunks INTEGER NOT NULL,
+    chunks_done INTEGER NOT NULL,
+    imported BIGINT NOT NULL,
+    rejected BIGINT NOT NULL,
+    rows_per_second FLOAT(53) NOT NULL,
+    error VARCHAR(1000),
+    started_at DATETIME(6) NOT NULL,
+    finished_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE import_checkpoints (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    job_id VARCHAR(36) NOT NULL,
+    chunk INTEGER NOT NULL,
+    part INTEGER DEFAULT 0 NOT NULL,
+    final_part BIT DEFAULT TRUE NOT NULL,
+    imported BIGINT NOT NULL,
+    rejected BIGINT NOT NULL,
+    committed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_import_checkpoints_job_chunk_part UNIQUE (job_id, chunk, part)
+) ENGINE=InnoDB;